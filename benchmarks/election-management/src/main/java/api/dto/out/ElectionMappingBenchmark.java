@@ -0,0 +1,51 @@
+package api.dto.out;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Domain election to response DTO, as done for every election on GET /api/elections
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ElectionMappingBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int candidates;
+
+    private domain.Election election;
+
+    @Setup
+    public void setup() {
+        Map<domain.Candidate, Integer> votes = new HashMap<>();
+        for (int c = 0; c < candidates; c++) {
+            votes.put(new domain.Candidate("candidate-" + c, Optional.of("https://photos/" + c), "Given" + c,
+                    "Family" + c, "candidate" + c + "@mail.com", Optional.of("+55 11 9999-" + c),
+                    Optional.of("Job " + c)), c);
+        }
+        election = new domain.Election("election-1", votes);
+    }
+
+    @Benchmark
+    public Election fromDomain() {
+        return Election.fromDomain(election);
+    }
+}
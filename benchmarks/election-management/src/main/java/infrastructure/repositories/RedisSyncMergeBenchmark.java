@@ -0,0 +1,48 @@
+package infrastructure.repositories;
+
+import domain.Election;
+import io.quarkus.redis.datasource.sortedset.ScoredValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merge of the sorted set scores into an election, as done by RedisElectionRepository.sync
+ * for every election on each Sync run
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisSyncMergeBenchmark {
+
+    @Param({"10", "1000", "10000", "100000"})
+    int candidates;
+
+    private Election election;
+    private List<ScoredValue<String>> scores;
+
+    @Setup
+    public void setup() {
+        election = SyntheticData.election("election-1", candidates);
+        scores = SyntheticData.scores(candidates);
+    }
+
+    @Benchmark
+    public Election merge() {
+        return RedisElectionRepository.merge(election, scores);
+    }
+}
@@ -0,0 +1,47 @@
+package infrastructure.repositories;
+
+import domain.Election;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row to domain mapping of SQLElectionRepository.findAll, without the database
+ * Shapes are elections x candidates per election
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SQLElectionMappingBenchmark {
+
+    @Param({"1x10", "1x100000", "100x1000", "10000x10"})
+    String shape;
+
+    private Object[][] rows;
+
+    @Setup
+    public void setup() {
+        String[] parts = shape.split("x");
+        rows = SyntheticData.rows(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+    }
+
+    @Benchmark
+    public List<Election> findAllMapping() {
+        return SQLElectionRepository.toElections(Arrays.stream(rows));
+    }
+}
@@ -0,0 +1,54 @@
+package infrastructure.repositories;
+
+import domain.Election;
+import io.quarkus.redis.datasource.sortedset.ScoredValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of one Sync run excluding I/O: map every row, then merge the scores of every election
+ * Shapes are elections x candidates per election
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SyncCycleBenchmark {
+
+    @Param({"1x10", "100x1000", "10000x10"})
+    String shape;
+
+    private Object[][] rows;
+    private List<ScoredValue<String>> scores;
+
+    @Setup
+    public void setup() {
+        String[] parts = shape.split("x");
+        int candidates = Integer.parseInt(parts[1]);
+        rows = SyntheticData.rows(Integer.parseInt(parts[0]), candidates);
+        scores = SyntheticData.scores(candidates);
+    }
+
+    @Benchmark
+    public void cycle(Blackhole blackhole) {
+        for (Election election : SQLElectionRepository.toElections(Arrays.stream(rows))) {
+            blackhole.consume(RedisElectionRepository.merge(election, scores));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package infrastructure.repositories;
+
+import domain.Candidate;
+import domain.Election;
+import io.quarkus.redis.datasource.sortedset.ScoredValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Synthetic rows and scores shaped like the data read by the Sync loop
+ * Candidate ids are shared across elections, as candidates run in several elections
+ */
+final class SyntheticData {
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Rows of the election/candidate join, in the column order of SQLElectionRepository.findAll
+     */
+    static Object[][] rows(int elections, int candidatesPerElection) {
+        Object[][] rows = new Object[elections * candidatesPerElection][];
+        int row = 0;
+        for (int e = 0; e < elections; e++) {
+            String electionId = "election-" + e;
+            for (int c = 0; c < candidatesPerElection; c++) {
+                rows[row++] = new Object[]{electionId, "candidate-" + c, "https://photos/" + c, "Given" + c,
+                        "Family" + c, "candidate" + c + "@mail.com", "+55 11 9999-" + c, "Job " + c, c};
+            }
+        }
+        return rows;
+    }
+
+    static Election election(String id, int candidates) {
+        Map<Candidate, Integer> votes = new HashMap<>();
+        for (int c = 0; c < candidates; c++) {
+            votes.put(new Candidate("candidate-" + c, Optional.of("https://photos/" + c), "Given" + c,
+                    "Family" + c, "candidate" + c + "@mail.com", Optional.of("+55 11 9999-" + c),
+                    Optional.of("Job " + c)), 0);
+        }
+        return new Election(id, votes);
+    }
+
+    /**
+     * Sorted set content of an election, one score per candidate
+     */
+    static List<ScoredValue<String>> scores(int candidates) {
+        List<ScoredValue<String>> scores = new ArrayList<>(candidates);
+        for (int c = 0; c < candidates; c++) {
+            scores.add(new ScoredValue<>("candidate-" + c, c * 10));
+        }
+        return scores;
+    }
+}
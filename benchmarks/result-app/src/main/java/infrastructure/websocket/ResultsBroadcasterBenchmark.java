@@ -0,0 +1,103 @@
+package infrastructure.websocket;
+
+import api.dto.in.Election;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import infrastructure.rest.ElectionResultsFeed;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One snapshot pushed to every WebSocket client: delta encoding once, then one send per client
+ * Sends complete synchronously, so this is the broadcaster's own cost per snapshot, without the container's
+ * copy into its write buffer nor the network
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultsBroadcasterBenchmark {
+    private static final SendResult OK = new SendResult();
+
+    @Param({"1", "100", "10000"})
+    int sessions;
+
+    private ResultsBroadcaster broadcaster;
+    private List<Election> elections;
+    private int votes;
+
+    @Setup
+    public void setup() {
+        // Never polls within a run, the snapshots are published by the benchmark
+        ElectionResultsFeed feed = new ElectionResultsFeed(null, null, Duration.ofDays(1), false, 1);
+        broadcaster = new ResultsBroadcaster(feed, new ObjectMapper(), new SimpleMeterRegistry(), Duration.ofSeconds(30));
+        elections = elections(10, 10);
+        broadcaster.publish(elections);
+        for (int i = 0; i < sessions; i++) {
+            broadcaster.join(session(Integer.toString(i)));
+        }
+    }
+
+    /**
+     * One candidate gets a vote, every client is sent the delta
+     */
+    @Benchmark
+    public void publish() {
+        Election first = elections.get(0);
+        List<Election> next = new ArrayList<>(elections);
+        next.set(0, first.withVotes(Map.of(first.candidates().get(0).id(), ++votes)));
+        elections = next;
+        broadcaster.publish(next);
+    }
+
+    private static List<Election> elections(int count, int candidates) {
+        List<Election> elections = new ArrayList<>(count);
+        for (int e = 0; e < count; e++) {
+            List<Election.Candidate> list = new ArrayList<>(candidates);
+            for (int c = 0; c < candidates; c++) {
+                list.add(new Election.Candidate("candidate-" + e + "-" + c, Optional.empty(), "Candidate " + c,
+                        "candidate" + c + "@example.com", Optional.empty(), Optional.empty(), 0));
+            }
+            elections.add(new Election("election-" + e, list));
+        }
+        return elections;
+    }
+
+    private static Session session(String id) {
+        RemoteEndpoint.Async remote = (RemoteEndpoint.Async) Proxy.newProxyInstance(
+                RemoteEndpoint.Async.class.getClassLoader(), new Class<?>[]{RemoteEndpoint.Async.class},
+                (proxy, method, args) -> {
+                    ((SendHandler) args[1]).onResult(OK);
+                    return null;
+                });
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getId" -> id;
+                    case "getAsyncRemote" -> remote;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,49 @@
+package api.dto.out;
+
+import domain.Candidate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Domain election to response DTO, as done for every election on GET /api/voting
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElectionMappingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int candidates;
+
+    private domain.Election election;
+
+    @Setup
+    public void setup() {
+        List<Candidate> list = new ArrayList<>(candidates);
+        for (int i = 0; i < candidates; i++) {
+            list.add(new Candidate("candidate-" + i));
+        }
+        election = new domain.Election("election-1", list);
+    }
+
+    @Benchmark
+    public Election fromDomain() {
+        return Election.fromDomain(election);
+    }
+}
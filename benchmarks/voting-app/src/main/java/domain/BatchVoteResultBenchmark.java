@@ -0,0 +1,49 @@
+package domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BatchVoteResult.from over batches with one failure every ten votes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchVoteResultBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int votes;
+
+    private List<VoteResult> results;
+
+    @Setup
+    public void setup() {
+        results = new ArrayList<>(votes);
+        for (int i = 0; i < votes; i++) {
+            results.add(i % 10 == 0
+                    ? VoteResult.failure("candidate-" + i, "duplicate", 1)
+                    : VoteResult.success("candidate-" + i, 1));
+        }
+    }
+
+    @Benchmark
+    public BatchVoteResult from() {
+        return BatchVoteResult.from(results, 1_000);
+    }
+}
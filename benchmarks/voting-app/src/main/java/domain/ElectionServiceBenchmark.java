@@ -0,0 +1,64 @@
+package domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ElectionService.vote against an in-memory repository: candidate validation and dispatch only
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElectionServiceBenchmark {
+
+    @Param({"10", "1000"})
+    int candidates;
+
+    private ElectionService service;
+    private String electionId;
+    private String candidateId;
+
+    @Setup
+    public void setup() {
+        InMemoryElectionRepository repository = new InMemoryElectionRepository();
+        List<Candidate> list = new ArrayList<>(candidates);
+        for (int i = 0; i < candidates; i++) {
+            list.add(new Candidate("candidate-" + i));
+        }
+        electionId = "election-1";
+        candidateId = "candidate-" + (candidates - 1);
+        repository.add(new Election(electionId, list));
+        service = new ElectionService(repository);
+    }
+
+    @Benchmark
+    public boolean vote() {
+        return service.vote(electionId, candidateId);
+    }
+
+    @Benchmark
+    public boolean voteUnknownCandidate() {
+        return service.vote(electionId, "unknown");
+    }
+
+    @Benchmark
+    public Boolean voteReactive() {
+        return service.voteReactive(electionId, candidateId).await().indefinitely();
+    }
+}
@@ -0,0 +1,57 @@
+package domain;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Election repository held in memory, isolates ElectionService from Redis in benchmarks
+ */
+class InMemoryElectionRepository implements ElectionRepository {
+
+    private final Map<String, Election> elections = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> votes = new ConcurrentHashMap<>();
+
+    void add(Election election) {
+        elections.put(election.id(), election);
+    }
+
+    @Override
+    public Election findById(String id) {
+        return elections.get(id);
+    }
+
+    @Override
+    public List<Election> findAll() {
+        return List.copyOf(elections.values());
+    }
+
+    @Override
+    public void vote(String id, Candidate candidate) {
+        votes.computeIfAbsent(candidate.id(), c -> new LongAdder()).increment();
+    }
+
+    @Override
+    public Uni<Election> findByIdReactive(String id) {
+        return Uni.createFrom().item(findById(id));
+    }
+
+    @Override
+    public Uni<Void> voteReactive(String id, Candidate candidate) {
+        vote(id, candidate);
+        return Uni.createFrom().voidItem();
+    }
+
+    @Override
+    public Uni<List<Standing>> topReactive(String id, int k) {
+        return Uni.createFrom().item(findById(id).candidates().stream()
+                .map(candidate -> new Standing(candidate, votes.getOrDefault(candidate.id(), new LongAdder()).sum()))
+                .sorted(Comparator.comparingLong(Standing::votes).reversed())
+                .limit(k)
+                .toList());
+    }
+}
@@ -0,0 +1,43 @@
+package domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vote construction, including the validation in the compact constructor
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VoteBenchmark {
+
+    private String electionId = "election-1";
+    private String candidateId = "candidate-1";
+    private String voterId = "voter-1";
+
+    @Benchmark
+    public Vote create() {
+        return Vote.create(electionId, candidateId, voterId);
+    }
+
+    @Benchmark
+    public Object rejectBlankVoter() {
+        try {
+            return new Vote(electionId, candidateId, " ", 0L);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+}
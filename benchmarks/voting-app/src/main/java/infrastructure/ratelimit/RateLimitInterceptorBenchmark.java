@@ -0,0 +1,141 @@
+package infrastructure.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.interceptor.InvocationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call overhead of RateLimitInterceptor on the allowed path
+ * Compare rateLimited against baseline: the difference is the plan lookup, bucket lookup and tryConsume
+ *
+ * Limits are configured large enough that the bucket never runs dry during a run
+ * sampledClock compares RateLimitClock against the system clock (ratelimit.clock.sampled)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitInterceptorBenchmark {
+
+    // Close to the highest refill rate Bucket4j accepts (1 token/ns)
+    private static final long UNLIMITED = 50_000_000_000L;
+
+    @Param({"true", "false"})
+    public boolean sampledClock;
+
+    private RateLimitInterceptor interceptor;
+    private InvocationContext rateLimited;
+    private InvocationContext unlimited;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        interceptor = new RateLimitInterceptor();
+        interceptor.rateLimiterConfig = new RateLimiterConfig(new SimpleMeterRegistry(), 100_000, Duration.ofMinutes(2),
+                UNLIMITED, UNLIMITED, UNLIMITED, sampledClock);
+        rateLimited = new Invocation(Resource.class.getMethod("query"));
+        unlimited = new Invocation(Resource.class.getMethod("unlimited"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        interceptor.rateLimiterConfig.shutdown();
+    }
+
+    @Benchmark
+    public Object baseline() throws Exception {
+        return rateLimited.proceed();
+    }
+
+    @Benchmark
+    public Object rateLimited() throws Exception {
+        return interceptor.rateLimit(rateLimited);
+    }
+
+    @Benchmark
+    public Object notRateLimited() throws Exception {
+        return interceptor.rateLimit(unlimited);
+    }
+
+    public static class Resource {
+
+        @RateLimited(RateLimited.RateLimitType.QUERY)
+        public String query() {
+            return "ok";
+        }
+
+        public String unlimited() {
+            return "ok";
+        }
+    }
+
+    /**
+     * Minimal invocation context, proceed returns a constant like a trivial endpoint
+     */
+    private static final class Invocation implements InvocationContext {
+        private final Method method;
+        private final Map<String, Object> contextData = new HashMap<>();
+
+        private Invocation(Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public Object getTarget() {
+            return null;
+        }
+
+        @Override
+        public Object getTimer() {
+            return null;
+        }
+
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+
+        @Override
+        public Constructor<?> getConstructor() {
+            return null;
+        }
+
+        @Override
+        public Object[] getParameters() {
+            return new Object[0];
+        }
+
+        @Override
+        public void setParameters(Object[] params) {
+        }
+
+        @Override
+        public Map<String, Object> getContextData() {
+            return contextData;
+        }
+
+        @Override
+        public Object proceed() {
+            return "ok";
+        }
+    }
+}
@@ -2,17 +2,22 @@ package api;
 
 import api.dto.out.Election;
 import domain.ElectionService;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.enterprise.context.ApplicationScoped;
 
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 @ApplicationScoped
 public class ElectionApi {
 	private final ElectionService service;
+	private final ElectionResults results;
 
-	public ElectionApi(ElectionService service) {
+	public ElectionApi(ElectionService service, ElectionResults results) {
 		this.service = service;
+		this.results = results;
 	}
 
 	public void submit() {
@@ -21,4 +26,28 @@ public class ElectionApi {
 	public List<Election> list() {
 		return service.findAll().stream().map(Election::fromDomain).toList();
 	}
+
+	public ElectionResults.Snapshot results() {
+		return results.current();
+	}
+
+	/**
+	 * Every election after the given id, read pageSize elections at a time on a worker thread
+	 */
+	public Multi<Election> stream(String after, int pageSize) {
+		return Multi.createBy()
+				.repeating()
+				.supplier(() -> new AtomicReference<>(after), cursor -> {
+					List<domain.Election> page = service.findPage(cursor.get(), pageSize);
+					if (!page.isEmpty()) {
+						cursor.set(page.get(page.size() - 1).id());
+					}
+					return page;
+				})
+				// A short page is the last one
+				.whilst(page -> page.size() == pageSize)
+				.onItem().<domain.Election>disjoint()
+				.map(Election::fromDomain)
+				.runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+	}
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package api;
+
+import api.dto.out.Election;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import domain.ElectionService;
+import domain.ResultsChanged;
+import domain.ResultsVersion;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serialized results of every election, rebuilt from the database only when they changed
+ *
+ * ResultsChanged (observed after the commit when fired inside a transaction) bumps the local version
+ * and the ResultsVersion shared by every replica, so replicas that did not run the change (Sync runs
+ * on a single replica) rebuild on their next read. Only while the shared version cannot be read
+ * does the snapshot expire after results.snapshot.max-age
+ *
+ * The ETag is a hash of the serialized content, so every replica serving the same results
+ * hands out the same ETag
+ */
+@ApplicationScoped
+public class ElectionResults {
+    private final ElectionService service;
+    private final ObjectMapper mapper;
+    private final ResultsVersion sharedVersion;
+    private final long maxAgeNanos;
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public ElectionResults(ElectionService service,
+                           ObjectMapper mapper,
+                           ResultsVersion sharedVersion,
+                           @ConfigProperty(name = "results.snapshot.max-age", defaultValue = "5S") Duration maxAge) {
+        this.service = service;
+        this.mapper = mapper;
+        this.sharedVersion = sharedVersion;
+        this.maxAgeNanos = maxAge.toNanos();
+    }
+
+    /**
+     * sharedVersion is empty when the shared version could not be read at build time
+     */
+    public record Snapshot(long version, OptionalLong sharedVersion, long builtNanos, String etag, byte[] json) {
+    }
+
+    public Snapshot current() {
+        OptionalLong shared = sharedVersion.current();
+        Snapshot current = snapshot;
+        return isFresh(current, shared) ? current : rebuild(shared);
+    }
+
+    void onResultsChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) ResultsChanged event) {
+        version.incrementAndGet();
+        sharedVersion.increment();
+    }
+
+    private boolean isFresh(Snapshot current, OptionalLong shared) {
+        if (current == null || current.version() != version.get()) {
+            return false;
+        }
+        if (shared.isPresent() && current.sharedVersion().isPresent()) {
+            return current.sharedVersion().getAsLong() == shared.getAsLong();
+        }
+        // No version to compare with, fall back to the age limit
+        return System.nanoTime() - current.builtNanos() < maxAgeNanos;
+    }
+
+    /**
+     * One rebuild at a time, concurrent readers get its result
+     */
+    private synchronized Snapshot rebuild(OptionalLong shared) {
+        Snapshot current = snapshot;
+        if (isFresh(current, shared)) {
+            return current;
+        }
+        long builtVersion = version.get();
+        long builtNanos = System.nanoTime();
+        List<Election> elections = service.findAll().stream().map(Election::fromDomain).toList();
+        try {
+            byte[] json = mapper.writeValueAsBytes(elections);
+            snapshot = new Snapshot(builtVersion, shared, builtNanos, etag(json), json);
+            return snapshot;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize election results", e);
+        }
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
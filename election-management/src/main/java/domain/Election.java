@@ -1,5 +1,6 @@
 package domain;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -11,4 +12,17 @@ public record Election(String id, Map<Candidate, Integer> votes) {
                 .collect(Collectors.toMap(candidate -> candidate, o -> 0));
         return new Election(UUID.randomUUID().toString(), votes);
     }
+
+    /**
+     * Candidates whose vote count differs from the previous snapshot of this election
+     */
+    public Election changedSince(Election previous) {
+        Map<Candidate, Integer> changed = new HashMap<>();
+        votes.forEach((candidate, count) -> {
+            if (!count.equals(previous.votes().get(candidate))) {
+                changed.put(candidate, count);
+            }
+        });
+        return new Election(id, changed);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package domain;
+
+import java.util.List;
+
+/**
+ * Paged reads of elections, only offered by the database
+ */
+public interface ElectionPageRepository {
+    /**
+     * Keyset pagination: up to limit elections with an id greater than after, ordered by id
+     */
+    List<Election> findPage(String after, int limit);
+}
@@ -2,6 +2,7 @@ package domain;
 
 import domain.annotations.SQL;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.enterprise.inject.Any;
 import jakarta.enterprise.inject.Instance;
 
@@ -10,22 +11,31 @@ import java.util.List;
 @ApplicationScoped
 public class ElectionService {
     private ElectionRepository repository;
+    private final ElectionPageRepository pages;
 
     private final Instance<ElectionRepository> repositories;
     private final CandidateService candidateService;
+    private final Event<ResultsChanged> resultsChanged;
 
-    public ElectionService(@SQL ElectionRepository repository, @Any Instance<ElectionRepository> repositories, CandidateService candidateService) {
+    public ElectionService(@SQL ElectionRepository repository, @SQL ElectionPageRepository pages, @Any Instance<ElectionRepository> repositories, CandidateService candidateService, Event<ResultsChanged> resultsChanged) {
         this.repository = repository;
+        this.pages = pages;
         this.repositories = repositories;
         this.candidateService = candidateService;
+        this.resultsChanged = resultsChanged;
     }
 
     public void submit() {
         Election election = Election.create(candidateService.findAll());
         repositories.forEach(repository -> repository.submit(election));
+        resultsChanged.fire(new ResultsChanged());
     }
 
     public List<Election> findAll() {
         return repository.findAll();
     }
+
+    public List<Election> findPage(String after, int limit) {
+        return pages.findPage(after, limit);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package domain;
+
+/**
+ * Fired once elections or vote counts stored in the database changed
+ */
+public record ResultsChanged() {
+}
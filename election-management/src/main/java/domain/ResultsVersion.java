@@ -0,0 +1,15 @@
+package domain;
+
+import java.util.OptionalLong;
+
+/**
+ * Version of the stored results shared by every replica, bumped whenever they change
+ */
+public interface ResultsVersion {
+    void increment();
+
+    /**
+     * The current version, empty when it cannot be read
+     */
+    OptionalLong current();
+}
@@ -3,33 +3,53 @@ package infrastructure.repositories;
 import domain.Candidate;
 import domain.Election;
 import domain.ElectionRepository;
+import infrastructure.redis.ScoredMembers;
 import io.quarkus.redis.datasource.RedisDataSource;
 import io.quarkus.redis.datasource.pubsub.PubSubCommands;
+import io.quarkus.redis.datasource.set.SetCommands;
 import io.quarkus.redis.datasource.sortedset.ScoreRange;
+import io.quarkus.redis.datasource.sortedset.ScoredValue;
 import io.quarkus.redis.datasource.sortedset.SortedSetCommands;
+import io.vertx.mutiny.redis.client.Command;
+import io.vertx.mutiny.redis.client.Redis;
+import io.vertx.mutiny.redis.client.Request;
+import io.vertx.mutiny.redis.client.Response;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.eclipse.microprofile.faulttolerance.*;
 import org.jboss.logging.Logger;
 
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class RedisElectionRepository implements ElectionRepository {
     private static final Logger LOG = Logger.getLogger(RedisElectionRepository.class);
+    // Registry of election ids, read by voting-app instead of scanning the keyspace
+    private static final String REGISTRY_KEY = "elections";
+    // Elections voted on since the last sync, marked by voting-app on every vote write
+    private static final String DIRTY_KEY = "elections:dirty";
 
     // Fallback cache for circuit breaker
     private final Map<String, Election> fallbackCache = new ConcurrentHashMap<>();
 
     private final PubSubCommands<String> pubsub;
     private final SortedSetCommands<String, String> commands;
+    private final SetCommands<String, String> registry;
+    private final Redis redis;
 
     public RedisElectionRepository(RedisDataSource dataSource) {
+        redis = dataSource.getReactive().getRedis();
         commands = dataSource.sortedSet(String.class, String.class);
         pubsub = dataSource.pubsub(String.class);
+        registry = dataSource.set(String.class);
     }
 
     @Override
@@ -45,6 +65,7 @@ public class RedisElectionRepository implements ElectionRepository {
                     .collect(Collectors.toMap(entry -> entry.getKey().id(),
                             entry -> entry.getValue().doubleValue()));
             commands.zadd("election:" + election.id(), rank);
+            registry.sadd(REGISTRY_KEY, election.id());
             pubsub.publish("elections", election.id());
 
             // Cache successful submission
@@ -77,23 +98,8 @@ public class RedisElectionRepository implements ElectionRepository {
     @Fallback(fallbackMethod = "syncFallback")
     public Election sync(Election election) {
         try {
-            var map = commands.zrangebyscoreWithScores("election:" + election.id(),
-                    ScoreRange.from(Integer.MIN_VALUE, Integer.MAX_VALUE))
-                    .stream()
-                    .map(scoredValue -> {
-                        Candidate candidate = election.votes()
-                                .keySet()
-                                .stream()
-                                .filter(c -> c.id().equals(scoredValue.value()))
-                                .findFirst()
-                                .orElseThrow();
-
-                        return Map.entry(candidate, (int) scoredValue.score());
-                    })
-                    .toArray(Map.Entry[]::new);
-
-            @SuppressWarnings("unchecked")
-            Election syncedElection = new Election(election.id(), Map.ofEntries(map));
+            Election syncedElection = merge(election, commands.zrangebyscoreWithScores("election:" + election.id(),
+                    ScoreRange.from(Integer.MIN_VALUE, Integer.MAX_VALUE)));
 
             // Cache successful sync
             fallbackCache.put(election.id(), syncedElection);
@@ -106,6 +112,94 @@ public class RedisElectionRepository implements ElectionRepository {
         }
     }
 
+    /**
+     * Sync many elections in one pipelined exchange: one ZRANGE WITHSCORES per election, results in the same order
+     * No fallback: failures must reach Sync, which puts back the dirty marks it took for these elections
+     */
+    @CircuitBreaker(requestVolumeThreshold = 5, failureRatio = 0.5, delay = 10000, delayUnit = ChronoUnit.MILLIS)
+    @Retry(maxRetries = 3, delay = 500, delayUnit = ChronoUnit.MILLIS)
+    @Timeout(value = 5, unit = ChronoUnit.SECONDS)
+    public List<Election> sync(List<Election> elections) {
+        if (elections.isEmpty()) {
+            return List.of();
+        }
+        try {
+            List<Request> requests = new ArrayList<>(elections.size());
+            for (Election election : elections) {
+                requests.add(Request.cmd(Command.ZRANGE).arg("election:" + election.id()).arg(0).arg(-1).arg("WITHSCORES"));
+            }
+            List<Response> responses = redis.batchAndAwait(requests);
+
+            List<Election> synced = new ArrayList<>(elections.size());
+            for (int i = 0; i < elections.size(); i++) {
+                synced.add(mergeOrKeep(elections.get(i), scores(responses.get(i))));
+            }
+
+            LOG.infof("%d elections synced successfully from Redis", elections.size());
+            return synced;
+        } catch (Exception e) {
+            LOG.errorf(e, "Error syncing %d elections from Redis", elections.size());
+            throw new RuntimeException("Failed to sync elections from Redis", e);
+        }
+    }
+
+    /**
+     * Merge one election of a bulk sync; an election whose scores cannot be merged is logged and returned
+     * unchanged, so Sync writes nothing for it instead of failing the whole batch
+     */
+    Election mergeOrKeep(Election election, List<ScoredValue<String>> scores) {
+        try {
+            Election syncedElection = merge(election, scores);
+            fallbackCache.put(syncedElection.id(), syncedElection);
+            return syncedElection;
+        } catch (NoSuchElementException e) {
+            LOG.errorf(e, "Skipping sync of election %s, its Redis scores do not match its candidates", election.id());
+            return election;
+        }
+    }
+
+    /**
+     * Replace the election's vote counts with the scores read from its sorted set
+     */
+    static Election merge(Election election, List<ScoredValue<String>> scores) {
+        Map<String, Candidate> candidates = new HashMap<>((int) (election.votes().size() / 0.75f) + 1);
+        for (Candidate candidate : election.votes().keySet()) {
+            candidates.put(candidate.id(), candidate);
+        }
+
+        Map<Candidate, Integer> votes = new HashMap<>((int) (scores.size() / 0.75f) + 1);
+        for (ScoredValue<String> scoredValue : scores) {
+            Candidate candidate = candidates.get(scoredValue.value());
+            if (candidate == null) {
+                throw new NoSuchElementException("Candidate " + scoredValue.value() + " is not part of election " + election.id());
+            }
+            votes.put(candidate, (int) scoredValue.score());
+        }
+        return new Election(election.id(), votes);
+    }
+
+    static List<ScoredValue<String>> scores(Response response) {
+        List<ScoredValue<String>> scores = new ArrayList<>();
+        ScoredMembers.forEach(response, (member, score) -> scores.add(new ScoredValue<>(member, score)));
+        return scores;
+    }
+
+    /**
+     * Atomically remove and return up to max elections marked dirty by voting-app
+     */
+    public Set<String> takeDirty(int max) {
+        return registry.spop(DIRTY_KEY, max);
+    }
+
+    /**
+     * Mark elections dirty again, used when syncing them failed after they were taken
+     */
+    public void markDirty(Collection<String> ids) {
+        if (!ids.isEmpty()) {
+            registry.sadd(DIRTY_KEY, ids.toArray(String[]::new));
+        }
+    }
+
     /**
      * Fallback method for sync when Redis is unavailable
      */
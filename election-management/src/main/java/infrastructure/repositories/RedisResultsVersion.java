@@ -0,0 +1,51 @@
+package infrastructure.repositories;
+
+import domain.ResultsVersion;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.quarkus.redis.datasource.value.ValueCommands;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.jboss.logging.Logger;
+
+import java.util.OptionalLong;
+
+/**
+ * Results version kept in a Redis counter, so a change made on one replica is seen by all of them
+ */
+@ApplicationScoped
+public class RedisResultsVersion implements ResultsVersion {
+    private static final Logger LOG = Logger.getLogger(RedisResultsVersion.class);
+    private static final String KEY = "elections:results:version";
+
+    private final ValueCommands<String, Long> commands;
+    // A bump that could not reach Redis, retried on the next read so other replicas still see the change
+    private volatile boolean pending;
+
+    public RedisResultsVersion(RedisDataSource dataSource) {
+        commands = dataSource.value(Long.class);
+    }
+
+    @Override
+    public void increment() {
+        try {
+            commands.incr(KEY);
+            pending = false;
+        } catch (RuntimeException e) {
+            pending = true;
+            LOG.warnf(e, "Could not bump the results version, retrying on the next read");
+        }
+    }
+
+    @Override
+    public OptionalLong current() {
+        if (pending) {
+            increment();
+        }
+        try {
+            Long version = commands.get(KEY);
+            return OptionalLong.of(version == null ? 0L : version);
+        } catch (RuntimeException e) {
+            LOG.debugf(e, "Could not read the results version");
+            return OptionalLong.empty();
+        }
+    }
+}
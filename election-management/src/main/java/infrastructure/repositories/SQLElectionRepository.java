@@ -2,43 +2,90 @@ package infrastructure.repositories;
 
 import domain.Candidate;
 import domain.Election;
+import domain.ElectionPageRepository;
 import domain.ElectionRepository;
 import domain.annotations.SQL;
 import infrastructure.repositories.entities.ElectionCandidate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
-import jakarta.transaction.Transactional;
+import jakarta.persistence.Query;
+import org.hibernate.jpa.HibernateHints;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
 
 @SQL
 @ApplicationScoped
-public class SQLElectionRepository implements ElectionRepository {
+public class SQLElectionRepository implements ElectionRepository, ElectionPageRepository {
     private static final Logger LOG = Logger.getLogger(SQLElectionRepository.class);
 
+    private static final String COLUMNS = "SELECT e.id AS election_id, c.id AS candidate_id, c.photo, c.given_name, c.family_name, c.email, c.phone, c.job_title, ec.votes";
+    private static final String JOINS = " INNER JOIN election_candidate AS ec ON ec.election_id = e.id INNER JOIN candidates AS c ON ec.candidate_id = c.id";
+    private static final String FIND_ALL = COLUMNS + " FROM elections AS e" + JOINS;
+    // Keyset page: the next :limit elections after :after, walked on the election_candidate primary key
+    private static final String FIND_PAGE = COLUMNS
+            + " FROM (SELECT DISTINCT election_id FROM election_candidate WHERE election_id > :after ORDER BY election_id LIMIT :limit) AS page"
+            + " INNER JOIN elections AS e ON e.id = page.election_id" + JOINS + " ORDER BY e.id";
+
+    private static final String UPSERT_ELECTION = "INSERT INTO elections (id) VALUES (?1) ON DUPLICATE KEY UPDATE id = id";
+    private static final String UPSERT = "INSERT INTO election_candidate (election_id, candidate_id, votes) VALUES ";
+    private static final String ON_DUPLICATE = " ON DUPLICATE KEY UPDATE votes = VALUES(votes)";
+
     private final EntityManager entityManager;
+    private final int fetchSize;
+    private final boolean bulkWrites;
+    private final int chunkSize;
+    // Statement for a full chunk, built once
+    private final String chunkStatement;
+    private final Timer submitTransactions;
+    private final Timer syncTransactions;
+    private final Counter submitRows;
+    private final Counter syncRows;
 
-    public SQLElectionRepository(EntityManager entityManager) {
+    public SQLElectionRepository(EntityManager entityManager,
+                                 MeterRegistry registry,
+                                 @ConfigProperty(name = "sql.fetch-size", defaultValue = "500") int fetchSize,
+                                 @ConfigProperty(name = "sql.bulk-writes.enabled", defaultValue = "true") boolean bulkWrites,
+                                 @ConfigProperty(name = "sql.bulk-writes.chunk-size", defaultValue = "500") int chunkSize) {
         this.entityManager = entityManager;
+        this.fetchSize = fetchSize;
+        this.bulkWrites = bulkWrites;
+        this.chunkSize = chunkSize;
+        this.chunkStatement = upsertStatement(chunkSize);
+        String mode = bulkWrites ? "bulk" : "merge";
+        this.submitTransactions = transactionTimer(registry, "submit", mode);
+        this.syncTransactions = transactionTimer(registry, "sync", mode);
+        this.submitRows = rowCounter(registry, "submit", mode);
+        this.syncRows = rowCounter(registry, "sync", mode);
     }
 
+    /**
+     * Runs in its own transaction (or joins the caller's) so the recorded duration includes the commit
+     */
     @Override
-    @Transactional
     public void submit(Election election) {
         try {
-            entityManager.merge(infrastructure.repositories.entities.Election.fromDomain(election));
-            election.votes()
-                    .entrySet()
-                    .stream()
-                    .map(entry -> infrastructure.repositories.entities.ElectionCandidate.fromDomain(election,
-                            entry.getKey(), entry.getValue()))
-                    .forEach(entityManager::merge);
+            long start = System.nanoTime();
+            QuarkusTransaction.joiningExisting().run(() -> {
+                writeElection(election);
+                writeVotes(election);
+            });
+            record(submitTransactions, submitRows, election, System.nanoTime() - start);
             LOG.infof("Election %s submitted successfully to database", election.id());
         } catch (Exception e) {
             LOG.errorf(e, "Error submitting election %s to database", election.id());
@@ -48,45 +95,89 @@ public class SQLElectionRepository implements ElectionRepository {
 
     @Override
     public List<Election> findAll() {
-        try {
-            Stream<Object[]> stream = entityManager.createNativeQuery(
-                    "SELECT e.id AS election_id, c.id AS candidate_id, c.photo, c.given_name, c.family_name, c.email, c.phone, c.job_title, ec.votes FROM elections AS e INNER JOIN election_candidate AS ec ON ec.election_id = e.id INNER JOIN candidates AS c ON ec.candidate_id = c.id")
-                    .getResultStream();
+        try (Stream<Object[]> stream = entityManager.createNativeQuery(FIND_ALL)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream()) {
+            return toElections(stream);
+        } catch (Exception e) {
+            LOG.errorf(e, "Error finding all elections from database");
+            throw new RuntimeException("Failed to find elections from database", e);
+        }
+    }
 
-            Map<String, List<Object[]>> map = stream.collect(groupingBy(o -> o[0].toString()));
+    /**
+     * Same join as findAll, restricted to the given elections
+     * Sync passes up to sync.dirty.batch-size elections here, so the rows are streamed fetchSize at a time as well
+     */
+    public List<Election> findByIds(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        try (Stream<Object[]> stream = entityManager.createNativeQuery(FIND_ALL + " WHERE e.id IN (:ids)")
+                .setParameter("ids", ids)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream()) {
+            return toElections(stream);
+        } catch (Exception e) {
+            LOG.errorf(e, "Error finding elections %s from database", ids);
+            throw new RuntimeException("Failed to find elections from database", e);
+        }
+    }
 
-            return map.entrySet()
-                    .stream()
-                    .map(entry -> {
-                        Map.Entry<Candidate, Integer>[] candidates = entry.getValue()
-                                .stream()
-                                .map(row -> Map.entry(new Candidate(row[1].toString(),
-                                        Optional.ofNullable(row[2].toString()),
-                                        row[3].toString(),
-                                        row[4].toString(),
-                                        row[5].toString(),
-                                        Optional.ofNullable(row[6].toString()),
-                                        Optional.ofNullable(row[7].toString())),
-                                        (Integer) row[8]))
-                                .toArray(Map.Entry[]::new);
-
-                        return new Election(entry.getKey(), Map.ofEntries(candidates));
-                    }).toList();
+    /**
+     * Up to limit elections with an id greater than after, ordered by id
+     * Rows are streamed fetchSize at a time, so memory is bounded by the page and not by the table
+     */
+    @Override
+    public List<Election> findPage(String after, int limit) {
+        try {
+            return QuarkusTransaction.joiningExisting().call(() -> {
+                try (Stream<Object[]> stream = entityManager.createNativeQuery(FIND_PAGE)
+                        .setParameter("after", after)
+                        .setParameter("limit", limit)
+                        .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                        .getResultStream()) {
+                    return toElections(stream);
+                }
+            });
         } catch (Exception e) {
-            LOG.errorf(e, "Error finding all elections from database");
+            LOG.errorf(e, "Error finding elections after %s from database", after);
             throw new RuntimeException("Failed to find elections from database", e);
         }
     }
 
+    /**
+     * Group the joined election/candidate rows by election, in the order the elections first appear
+     * Columns: election id, candidate id, photo, given name, family name, email, phone, job title, votes
+     */
+    static List<Election> toElections(Stream<Object[]> rows) {
+        Map<String, List<Object[]>> map = rows.collect(groupingBy(o -> o[0].toString(), LinkedHashMap::new, toList()));
+
+        return map.entrySet()
+                .stream()
+                .map(entry -> {
+                    Map.Entry<Candidate, Integer>[] candidates = entry.getValue()
+                            .stream()
+                            .map(row -> Map.entry(new Candidate(row[1].toString(),
+                                    Optional.ofNullable(row[2].toString()),
+                                    row[3].toString(),
+                                    row[4].toString(),
+                                    row[5].toString(),
+                                    Optional.ofNullable(row[6].toString()),
+                                    Optional.ofNullable(row[7].toString())),
+                                    (Integer) row[8]))
+                            .toArray(Map.Entry[]::new);
+
+                    return new Election(entry.getKey(), Map.ofEntries(candidates));
+                }).toList();
+    }
+
     @Override
-    @Transactional
     public Election sync(Election election) {
         try {
-            election.votes()
-                    .entrySet()
-                    .stream()
-                    .map(entry -> ElectionCandidate.fromDomain(election, entry.getKey(), entry.getValue()))
-                    .forEach(entityManager::merge);
+            long start = System.nanoTime();
+            QuarkusTransaction.joiningExisting().run(() -> writeVotes(election));
+            record(syncTransactions, syncRows, election, System.nanoTime() - start);
             LOG.infof("Election %s synced successfully to database", election.id());
             return election;
         } catch (Exception e) {
@@ -94,4 +185,85 @@ public class SQLElectionRepository implements ElectionRepository {
             throw new RuntimeException("Failed to sync election to database", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Write the elections row, in the same mode as its candidate rows
+     * Bulk mode sends one INSERT ... ON DUPLICATE KEY UPDATE, so submit never reads before writing;
+     * otherwise the row goes through EntityManager.merge
+     */
+    void writeElection(Election election) {
+        if (!bulkWrites) {
+            entityManager.merge(infrastructure.repositories.entities.Election.fromDomain(election));
+            return;
+        }
+        entityManager.createNativeQuery(UPSERT_ELECTION)
+                .setParameter(1, election.id())
+                .executeUpdate();
+    }
+
+    /**
+     * Write the election_candidate rows of the election
+     * Bulk mode sends multi-row INSERT ... ON DUPLICATE KEY UPDATE statements of chunkSize rows,
+     * otherwise each row goes through EntityManager.merge (a SELECT plus an INSERT or UPDATE)
+     */
+    void writeVotes(Election election) {
+        if (!bulkWrites) {
+            election.votes()
+                    .entrySet()
+                    .stream()
+                    .map(entry -> ElectionCandidate.fromDomain(election, entry.getKey(), entry.getValue()))
+                    .forEach(entityManager::merge);
+            return;
+        }
+
+        List<Map.Entry<Candidate, Integer>> rows = List.copyOf(election.votes().entrySet());
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<Map.Entry<Candidate, Integer>> chunk = rows.subList(from, Math.min(from + chunkSize, rows.size()));
+            Query query = entityManager.createNativeQuery(chunk.size() == chunkSize
+                    ? chunkStatement
+                    : upsertStatement(chunk.size()));
+            int position = 1;
+            for (Map.Entry<Candidate, Integer> row : chunk) {
+                query.setParameter(position++, election.id());
+                query.setParameter(position++, row.getKey().id());
+                query.setParameter(position++, row.getValue());
+            }
+            query.executeUpdate();
+        }
+    }
+
+    static String upsertStatement(int rows) {
+        StringJoiner values = new StringJoiner(", ", UPSERT, ON_DUPLICATE);
+        for (int row = 0; row < rows; row++) {
+            int first = row * 3 + 1;
+            values.add("(?" + first + ", ?" + (first + 1) + ", ?" + (first + 2) + ")");
+        }
+        return values.toString();
+    }
+
+    private void record(Timer transactions, Counter rows, Election election, long nanos) {
+        transactions.record(nanos, TimeUnit.NANOSECONDS);
+        rows.increment(election.votes().size());
+        if (nanos > 0) {
+            LOG.debugf("Election %s: %d rows in %.1f ms (%.0f rows/s)", election.id(), election.votes().size(),
+                    nanos / 1_000_000.0, election.votes().size() * 1_000_000_000.0 / nanos);
+        }
+    }
+
+    private static Timer transactionTimer(MeterRegistry registry, String operation, String mode) {
+        return Timer.builder("election.db.transaction.time")
+                .description("Duration of the transaction writing an election's candidate rows, commit included")
+                .tag("operation", operation)
+                .tag("mode", mode)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    private static Counter rowCounter(MeterRegistry registry, String operation, String mode) {
+        return Counter.builder("election.db.rows")
+                .description("Candidate rows written to election_candidate, rate() gives rows per second")
+                .tag("operation", operation)
+                .tag("mode", mode)
+                .register(registry);
+    }
+}
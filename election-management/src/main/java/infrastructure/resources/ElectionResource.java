@@ -1,19 +1,31 @@
 package infrastructure.resources;
 
 import api.ElectionApi;
+import api.ElectionResults;
 import api.dto.out.Election;
+import io.smallrye.mutiny.Multi;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.jboss.resteasy.reactive.ResponseStatus;
 import org.jboss.resteasy.reactive.RestResponse;
-
-import java.util.List;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+import org.jboss.resteasy.reactive.common.util.RestMediaType;
 
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 @Path("/api/elections")
 public class ElectionResource {
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final ElectionApi api;
 
     public ElectionResource(ElectionApi api) {
@@ -27,8 +39,36 @@ public class ElectionResource {
         api.submit();
     }
 
+    /**
+     * Serves the results snapshot, 304 without touching the database when If-None-Match holds its ETag
+     */
+    @GET
+    @APIResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON,
+            schema = @Schema(type = SchemaType.ARRAY, implementation = Election.class)))
+    @APIResponse(responseCode = "304", description = "Results unchanged since the ETag sent in If-None-Match")
+    public Response list(@Context Request request) {
+        ElectionResults.Snapshot snapshot = api.results();
+        EntityTag etag = new EntityTag(snapshot.etag());
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        return Response.ok(snapshot.json()).tag(etag).build();
+    }
+
+    /**
+     * Newline-delimited JSON, one election per line ordered by id, read from the database page by page
+     * Resume an interrupted stream with after set to the last id received
+     */
     @GET
-    public List<Election> list() {
-        return api.list();
+    @Path("stream")
+    @Produces(RestMediaType.APPLICATION_NDJSON)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<Election> stream(@QueryParam("after") @DefaultValue("") String after,
+                                  @QueryParam("pageSize") @DefaultValue("100") int pageSize) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BadRequestException("pageSize must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return api.stream(after, pageSize);
     }
-}
\ No newline at end of file
+}
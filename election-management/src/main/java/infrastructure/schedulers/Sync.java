@@ -1,26 +1,204 @@
 package infrastructure.schedulers;
 
+import domain.Election;
+import domain.ResultsChanged;
 import domain.annotations.SQL;
 import infrastructure.repositories.RedisElectionRepository;
 import infrastructure.repositories.SQLElectionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.SkippedExecution;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Copies vote counts from Redis back to the database
+ *
+ * Incremental: each run only syncs the elections voting-app marked dirty since the last run,
+ * and only writes the candidate rows whose count changed. A full pass over every election
+ * runs on the first run and then every sync.reconcile-interval, as a safety net for marks
+ * lost to failures
+ *
+ * Database writes of different elections run in parallel on virtual threads, at most
+ * sync.max-concurrency at a time (defaults to the JDBC pool size). A run still in progress
+ * when the next one is due makes the scheduler skip that one
+ *
+ * With several replicas, only the holder of the SyncLease runs it, so Sync load does not grow with replicas.
+ * A run that loses the lease midway stops writing and fails, putting back its dirty marks
+ */
 @ApplicationScoped
 public class Sync {
+    private static final Logger LOG = Logger.getLogger(Sync.class);
+
     private final SQLElectionRepository sqlRepository;
     private final RedisElectionRepository redisRepository;
+    private final SyncLease lease;
+    private final Event<ResultsChanged> resultsChanged;
+    private final boolean incremental;
+    private final int dirtyBatchSize;
+    private final long reconcileIntervalNanos;
+    private volatile long lastReconcileNanos;
+    private volatile boolean reconciled;
+
+    // Caps the writes in flight so Sync never waits on more connections than the pool has
+    private final Semaphore permits;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sync-", 0).factory());
+
+    private final Timer incrementalCycles;
+    private final Timer reconcileCycles;
+    private final Counter skippedCycles;
+    // Start of the last successful cycle: the database reflects Redis as of that instant
+    private volatile long lastSyncedNanos = System.nanoTime();
 
-    public Sync(@SQL SQLElectionRepository sqlRepository, RedisElectionRepository redisRepository) {
+    public Sync(@SQL SQLElectionRepository sqlRepository,
+                RedisElectionRepository redisRepository,
+                SyncLease lease,
+                Event<ResultsChanged> resultsChanged,
+                MeterRegistry registry,
+                @ConfigProperty(name = "sync.incremental.enabled", defaultValue = "true") boolean incremental,
+                @ConfigProperty(name = "sync.dirty.batch-size", defaultValue = "1000") int dirtyBatchSize,
+                @ConfigProperty(name = "sync.reconcile-interval", defaultValue = "10M") Duration reconcileInterval,
+                @ConfigProperty(name = "sync.max-concurrency", defaultValue = "20") int maxConcurrency) {
         this.sqlRepository = sqlRepository;
         this.redisRepository = redisRepository;
+        this.lease = lease;
+        this.resultsChanged = resultsChanged;
+        this.incremental = incremental;
+        this.dirtyBatchSize = dirtyBatchSize;
+        this.reconcileIntervalNanos = reconcileInterval.toNanos();
+        this.permits = new Semaphore(maxConcurrency);
+
+        this.incrementalCycles = cycleTimer(registry, "incremental");
+        this.reconcileCycles = cycleTimer(registry, "reconcile");
+        this.skippedCycles = Counter.builder("sync.cycle.skipped")
+                .description("Sync runs skipped because the previous one was still running")
+                .register(registry);
+        Gauge.builder("sync.lag", this, Sync::lagSeconds)
+                .description("Time since the start of the last successful sync, an upper bound on how stale the database is (NaN off the lease holder)")
+                .baseUnit("seconds")
+                .register(registry);
     }
 
-    @Scheduled(cron = "*/5 * * * * ?")
+    @Scheduled(cron = "*/5 * * * * ?", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
     void syncWorker() {
-        sqlRepository.findAll().forEach(election -> sqlRepository.sync(redisRepository.sync(election)));
+        if (!lease.tryAcquire()) {
+            // Another replica syncs; if this one takes over later it starts with a full pass
+            reconciled = false;
+            return;
+        }
+        long start = System.nanoTime();
+        if (!incremental || !reconciled || start - lastReconcileNanos >= reconcileIntervalNanos) {
+            reconcile();
+            reconcileCycles.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            lastSyncedNanos = start;
+            return;
+        }
+
+        Set<String> dirty = redisRepository.takeDirty(dirtyBatchSize);
+        if (!dirty.isEmpty()) {
+            try {
+                sync(sqlRepository.findByIds(dirty));
+            } catch (RuntimeException e) {
+                // Put the marks back so the next run retries these elections
+                try {
+                    redisRepository.markDirty(dirty);
+                } catch (RuntimeException markFailure) {
+                    // The marks are lost, the next run does a full pass instead
+                    reconciled = false;
+                    e.addSuppressed(markFailure);
+                }
+                throw e;
+            }
+        }
+        incrementalCycles.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        lastSyncedNanos = start;
+    }
+
+    void onSkipped(@Observes SkippedExecution event) {
+        skippedCycles.increment();
+        LOG.warnf("Sync run skipped, the previous one is still running (%s)", event.triggerId);
+    }
+
+    /**
+     * Full pass over every election
+     */
+    private void reconcile() {
+        // Marks set before this pass are covered by it
+        redisRepository.takeDirty(Integer.MAX_VALUE);
+        sync(sqlRepository.findAll());
+        lastReconcileNanos = System.nanoTime();
+        reconciled = true;
     }
 
+    /**
+     * Elections are read from Redis dirtyBatchSize at a time, each chunk in one pipelined round trip,
+     * then the changed ones are written in parallel. Fails once every write finished if any of them failed
+     */
+    private void sync(List<Election> elections) {
+        List<CompletableFuture<Integer>> writes = new ArrayList<>();
+        for (int from = 0; from < elections.size(); from += dirtyBatchSize) {
+            List<Election> chunk = elections.subList(from, Math.min(from + dirtyBatchSize, elections.size()));
+            List<Election> synced = redisRepository.sync(chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                Election changed = synced.get(i).changedSince(chunk.get(i));
+                if (!changed.votes().isEmpty()) {
+                    writes.add(CompletableFuture.supplyAsync(() -> write(changed), executor));
+                }
+            }
+        }
 
-}
\ No newline at end of file
+        CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+        int written = writes.stream().mapToInt(CompletableFuture::join).sum();
+        if (written > 0) {
+            resultsChanged.fire(new ResultsChanged());
+        }
+        LOG.debugf("Synced %d elections, %d candidate rows changed", elections.size(), written);
+    }
+
+    private int write(Election changed) {
+        permits.acquireUninterruptibly();
+        try {
+            if (!lease.stillHeld()) {
+                throw new IllegalStateException("Sync lease lost, election " + changed.id() + " left to the new holder");
+            }
+            sqlRepository.sync(changed);
+            return changed.votes().size();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private double lagSeconds() {
+        return lease.held() ? (System.nanoTime() - lastSyncedNanos) / 1e9 : Double.NaN;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private static Timer cycleTimer(MeterRegistry registry, String mode) {
+        return Timer.builder("sync.cycle.duration")
+                .description("Duration of a Sync run, from reading Redis to the last database write")
+                .tag("mode", mode)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+}
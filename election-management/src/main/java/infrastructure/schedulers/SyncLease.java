@@ -0,0 +1,146 @@
+package infrastructure.schedulers;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.vertx.mutiny.redis.client.Command;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Redis lease electing the single replica that runs Sync
+ *
+ * The holder renews the lease on every run, and every third of sync.lease.ttl while a run
+ * keeps writing; Sync stops writing as soon as a renewal fails. The other replicas skip their runs.
+ * If the holder dies, another replica takes over once sync.lease.ttl expires.
+ * Two holders can still overlap for less than a renewal interval after a long pause of the old one,
+ * which is harmless because Sync writes absolute counts read from Redis
+ */
+@ApplicationScoped
+public class SyncLease {
+    private static final Logger LOG = Logger.getLogger(SyncLease.class);
+    private static final String KEY = "sync:lease";
+
+    // Renew when held, take when free: returns 1 when this replica holds the lease afterwards
+    private static final String ACQUIRE_SCRIPT = """
+            local owner = redis.call('GET', KEYS[1])
+            if owner == ARGV[1] then
+                redis.call('PEXPIRE', KEYS[1], ARGV[2])
+                return 1
+            end
+            if not owner then
+                redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+                return 1
+            end
+            return 0
+            """;
+
+    // Extend only when still held: returns 1 when this replica holds the lease afterwards
+    private static final String RENEW_SCRIPT = """
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                redis.call('PEXPIRE', KEYS[1], ARGV[2])
+                return 1
+            end
+            return 0
+            """;
+
+    private static final String RELEASE_SCRIPT = """
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """;
+
+    private final RedisDataSource dataSource;
+    private final boolean enabled;
+    private final String ttlMillis;
+    private final long renewIntervalNanos;
+    private final String owner = UUID.randomUUID().toString();
+    private volatile boolean held;
+    private volatile long renewedNanos;
+
+    public SyncLease(RedisDataSource dataSource,
+                     MeterRegistry registry,
+                     @ConfigProperty(name = "sync.lease.enabled", defaultValue = "true") boolean enabled,
+                     @ConfigProperty(name = "sync.lease.ttl", defaultValue = "30S") Duration ttl) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.ttlMillis = Long.toString(ttl.toMillis());
+        this.renewIntervalNanos = ttl.toNanos() / 3;
+
+        Gauge.builder("sync.leader", this, lease -> lease.held ? 1 : 0)
+                .description("1 when this replica holds the Sync lease")
+                .register(registry);
+    }
+
+    /**
+     * Take or renew the lease, true when this replica should run Sync
+     */
+    public boolean tryAcquire() {
+        if (!enabled) {
+            return true;
+        }
+        long now = System.nanoTime();
+        boolean acquired = dataSource.execute(Command.EVAL, ACQUIRE_SCRIPT, "1", KEY, owner, ttlMillis).toLong() == 1L;
+        update(acquired, now);
+        return acquired;
+    }
+
+    /**
+     * Called by a run before each write: true while this replica still holds the lease,
+     * renewing it once a third of the ttl went by since the last renewal.
+     * A failed renewal counts as lost, the lease may expire before Redis is reachable again
+     */
+    public synchronized boolean stillHeld() {
+        if (!enabled) {
+            return true;
+        }
+        long now = System.nanoTime();
+        if (!held || now - renewedNanos < renewIntervalNanos) {
+            return held;
+        }
+        boolean renewed;
+        try {
+            renewed = dataSource.execute(Command.EVAL, RENEW_SCRIPT, "1", KEY, owner, ttlMillis).toLong() == 1L;
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "Could not renew the Sync lease");
+            renewed = false;
+        }
+        update(renewed, now);
+        return renewed;
+    }
+
+    private synchronized void update(boolean holds, long now) {
+        if (holds != held) {
+            LOG.infof(holds ? "Sync lease acquired by %s" : "Sync lease lost by %s", owner);
+        }
+        held = holds;
+        if (holds) {
+            renewedNanos = now;
+        }
+    }
+
+    public boolean held() {
+        return held;
+    }
+
+    /**
+     * Hand the lease over on shutdown instead of making the other replicas wait for the ttl
+     */
+    @PreDestroy
+    void release() {
+        if (held) {
+            try {
+                dataSource.execute(Command.EVAL, RELEASE_SCRIPT, "1", KEY, owner);
+                held = false;
+            } catch (RuntimeException e) {
+                LOG.warnf(e, "Could not release the Sync lease, it expires on its own");
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package api;
+
+import api.dto.out.Election;
+import domain.Candidate;
+import domain.ElectionService;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class ElectionApiTest {
+
+    private final ElectionService service = mock(ElectionService.class);
+    private final ElectionApi api = new ElectionApi(service, mock(ElectionResults.class));
+    private final Candidate candidate = Instancio.create(Candidate.class);
+
+    @Test
+    void stream_walksThePagesFromTheLastIdOfEachPage() {
+        when(service.findPage("", 2)).thenReturn(List.of(election("a"), election("b")));
+        when(service.findPage("b", 2)).thenReturn(List.of(election("c"), election("d")));
+        when(service.findPage("d", 2)).thenReturn(List.of(election("e")));
+
+        List<String> ids = ids(api, "", 2);
+
+        assertEquals(List.of("a", "b", "c", "d", "e"), ids);
+        verify(service).findPage("", 2);
+        verify(service).findPage("b", 2);
+        verify(service).findPage("d", 2);
+        verifyNoMoreInteractions(service);
+    }
+
+    @Test
+    void stream_whenTheLastPageIsFull_endsOnTheEmptyPageAfterIt() {
+        when(service.findPage("", 2)).thenReturn(List.of(election("a"), election("b")));
+        when(service.findPage("b", 2)).thenReturn(List.of());
+
+        assertEquals(List.of("a", "b"), ids(api, "", 2));
+    }
+
+    @Test
+    void stream_resumesAfterTheGivenId() {
+        when(service.findPage("b", 10)).thenReturn(List.of(election("c")));
+
+        assertEquals(List.of("c"), ids(api, "b", 10));
+        verify(service).findPage("b", 10);
+        verifyNoMoreInteractions(service);
+    }
+
+    private static List<String> ids(ElectionApi api, String after, int pageSize) {
+        return api.stream(after, pageSize)
+                .map(Election::id)
+                .collect().asList()
+                .await().atMost(Duration.ofSeconds(5));
+    }
+
+    private domain.Election election(String id) {
+        return new domain.Election(id, Map.of(candidate, 0));
+    }
+}
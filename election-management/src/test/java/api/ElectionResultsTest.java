@@ -0,0 +1,99 @@
+package api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import domain.Candidate;
+import domain.Election;
+import domain.ElectionService;
+import domain.ResultsChanged;
+import domain.ResultsVersion;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ElectionResultsTest {
+
+    private final ElectionService service = mock(ElectionService.class);
+    private final ResultsVersion sharedVersion = mock(ResultsVersion.class);
+    private final Candidate candidate = Instancio.create(Candidate.class);
+
+    @Test
+    void current_whileTheSharedVersionIsUnchanged_reusesTheSnapshotPastTheMaxAge() {
+        ElectionResults results = results(Duration.ZERO);
+        when(sharedVersion.current()).thenReturn(OptionalLong.of(4));
+        when(service.findAll()).thenReturn(List.of(election(1)));
+
+        ElectionResults.Snapshot first = results.current();
+        ElectionResults.Snapshot second = results.current();
+
+        assertSame(first, second);
+        verify(service, times(1)).findAll();
+    }
+
+    @Test
+    void current_whenAnotherReplicaBumpedTheSharedVersion_rebuilds() {
+        ElectionResults results = results(Duration.ofMinutes(1));
+        when(sharedVersion.current()).thenReturn(OptionalLong.of(4), OptionalLong.of(5));
+        when(service.findAll()).thenReturn(List.of(election(1)), List.of(election(2)));
+
+        ElectionResults.Snapshot first = results.current();
+        ElectionResults.Snapshot second = results.current();
+
+        assertNotEquals(first.etag(), second.etag());
+        verify(service, times(2)).findAll();
+    }
+
+    @Test
+    void current_afterResultsChangedHere_rebuildsAndBumpsTheSharedVersion() {
+        ElectionResults results = results(Duration.ofMinutes(1));
+        when(sharedVersion.current()).thenReturn(OptionalLong.of(4));
+        when(service.findAll()).thenReturn(List.of(election(1)));
+
+        results.current();
+        results.onResultsChanged(new ResultsChanged());
+        results.current();
+
+        verify(sharedVersion).increment();
+        verify(service, times(2)).findAll();
+    }
+
+    @Test
+    void current_whenTheSharedVersionCannotBeRead_expiresAfterTheMaxAge() {
+        ElectionResults results = results(Duration.ZERO);
+        when(sharedVersion.current()).thenReturn(OptionalLong.empty());
+        when(service.findAll()).thenReturn(List.of(election(1)));
+
+        results.current();
+        results.current();
+
+        verify(service, times(2)).findAll();
+    }
+
+    @Test
+    void current_forTheSameResults_returnsTheSameEtag() {
+        when(sharedVersion.current()).thenReturn(OptionalLong.of(4));
+        when(service.findAll()).thenReturn(List.of(election(1)));
+
+        assertEquals(results(Duration.ZERO).current().etag(), results(Duration.ZERO).current().etag());
+    }
+
+    private ElectionResults results(Duration maxAge) {
+        return new ElectionResults(service, new ObjectMapper().registerModule(new Jdk8Module()), sharedVersion, maxAge);
+    }
+
+    private Election election(int votes) {
+        return new Election("election-1", Map.of(candidate, votes));
+    }
+}
@@ -0,0 +1,50 @@
+package infrastructure.repositories;
+
+import domain.Candidate;
+import domain.Election;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.quarkus.redis.datasource.sortedset.ScoredValue;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+
+class RedisElectionRepositoryTest {
+
+    private final Candidate candidate1 = Instancio.create(Candidate.class);
+    private final Candidate candidate2 = Instancio.create(Candidate.class);
+    private final Election election = new Election("election-1", Map.of(candidate1, 0, candidate2, 0));
+
+    @Test
+    void merge_replacesTheVoteCountsWithTheScores() {
+        Election merged = RedisElectionRepository.merge(election,
+                List.of(new ScoredValue<>(candidate1.id(), 3), new ScoredValue<>(candidate2.id(), 5)));
+
+        assertEquals(new Election(election.id(), Map.of(candidate1, 3, candidate2, 5)), merged);
+    }
+
+    @Test
+    void merge_whenAMemberIsNotACandidate_throwsException() {
+        assertThrows(NoSuchElementException.class, () -> RedisElectionRepository.merge(election,
+                List.of(new ScoredValue<>("unknown", 1))));
+    }
+
+    @Test
+    void mergeOrKeep_whenAMemberIsNotACandidate_keepsTheElectionUnchanged() {
+        RedisElectionRepository repository = new RedisElectionRepository(mock(RedisDataSource.class, RETURNS_DEEP_STUBS));
+
+        Election synced = repository.mergeOrKeep(election,
+                List.of(new ScoredValue<>(candidate1.id(), 3), new ScoredValue<>("unknown", 1)));
+
+        assertSame(election, synced);
+        assertEquals(Map.of(), synced.changedSince(election).votes());
+    }
+}
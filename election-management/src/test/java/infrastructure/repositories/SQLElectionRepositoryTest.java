@@ -0,0 +1,138 @@
+package infrastructure.repositories;
+
+import domain.Candidate;
+import domain.Election;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.jpa.HibernateHints;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SQLElectionRepositoryTest {
+
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final List<String> statements = new ArrayList<>();
+    private final Map<Integer, Object> parameters = new HashMap<>();
+
+    @Test
+    void upsertStatement_numbersThreeParametersPerRow() {
+        assertEquals("INSERT INTO election_candidate (election_id, candidate_id, votes) VALUES (?1, ?2, ?3), (?4, ?5, ?6)"
+                        + " ON DUPLICATE KEY UPDATE votes = VALUES(votes)",
+                SQLElectionRepository.upsertStatement(2));
+    }
+
+    @Test
+    void writeVotes_sendsFullChunksThenTheRemainder() {
+        Election election = election(5);
+
+        repository(true, 2).writeVotes(election);
+
+        assertEquals(List.of(SQLElectionRepository.upsertStatement(2),
+                SQLElectionRepository.upsertStatement(2),
+                SQLElectionRepository.upsertStatement(1)), statements);
+        verify(entityManager, never()).merge(any());
+    }
+
+    @Test
+    void writeVotes_bindsEveryRowOfTheElection() {
+        Election election = election(3);
+
+        repository(true, 500).writeVotes(election);
+
+        assertEquals(9, parameters.size());
+        Set<Object> candidateIds = new HashSet<>();
+        for (int row = 0; row < 3; row++) {
+            assertEquals(election.id(), parameters.get(row * 3 + 1));
+            candidateIds.add(parameters.get(row * 3 + 2));
+            assertEquals(7, parameters.get(row * 3 + 3));
+        }
+        assertEquals(election.votes().keySet().stream().map(Candidate::id).collect(Collectors.toSet()), candidateIds);
+    }
+
+    @Test
+    void writeVotes_whenBulkWritesAreDisabled_mergesEachRow() {
+        repository(false, 500).writeVotes(election(3));
+
+        verify(entityManager, times(3)).merge(any());
+        verify(entityManager, never()).createNativeQuery(anyString());
+    }
+
+    @Test
+    void writeElection_upsertsTheElectionRow() {
+        Election election = election(3);
+
+        repository(true, 500).writeElection(election);
+
+        assertEquals(List.of("INSERT INTO elections (id) VALUES (?1) ON DUPLICATE KEY UPDATE id = id"), statements);
+        assertEquals(Map.of(1, election.id()), parameters);
+        verify(entityManager, never()).merge(any());
+    }
+
+    @Test
+    void writeElection_whenBulkWritesAreDisabled_mergesTheElection() {
+        repository(false, 500).writeElection(election(3));
+
+        verify(entityManager).merge(any(infrastructure.repositories.entities.Election.class));
+        verify(entityManager, never()).createNativeQuery(anyString());
+    }
+
+    @Test
+    void findByIds_streamsTheRowsFetchSizeAtATimeAndClosesTheStream() {
+        AtomicBoolean closed = new AtomicBoolean();
+        Query query = mock(Query.class);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.setHint(anyString(), any())).thenReturn(query);
+        when(query.getResultStream()).thenReturn(Stream.<Object[]>of(
+                new Object[]{"election-1", "candidate-1", "photo", "given", "family", "email", "phone", "job", 7})
+                .onClose(() -> closed.set(true)));
+
+        List<Election> elections = new SQLElectionRepository(entityManager, new SimpleMeterRegistry(), 500, true, 500)
+                .findByIds(Set.of("election-1"));
+
+        assertEquals(1, elections.size());
+        verify(query).setHint(HibernateHints.HINT_FETCH_SIZE, 500);
+        assertTrue(closed.get());
+    }
+
+    private SQLElectionRepository repository(boolean bulkWrites, int chunkSize) {
+        when(entityManager.createNativeQuery(anyString())).thenAnswer(invocation -> {
+            statements.add(invocation.getArgument(0));
+            Query query = mock(Query.class);
+            when(query.setParameter(anyInt(), any())).thenAnswer(set -> {
+                parameters.put(set.getArgument(0), set.getArgument(1));
+                return query;
+            });
+            return query;
+        });
+        return new SQLElectionRepository(entityManager, new SimpleMeterRegistry(), 500, bulkWrites, chunkSize);
+    }
+
+    private static Election election(int candidates) {
+        Map<Candidate, Integer> votes = new HashMap<>();
+        Instancio.stream(Candidate.class).limit(candidates).forEach(candidate -> votes.put(candidate, 7));
+        return new Election("election-1", votes);
+    }
+}
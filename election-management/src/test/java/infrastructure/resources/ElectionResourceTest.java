@@ -0,0 +1,63 @@
+package infrastructure.resources;
+
+import api.ElectionApi;
+import api.ElectionResults;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.common.http.TestHTTPEndpoint;
+import io.quarkus.test.junit.QuarkusTest;
+import org.jboss.resteasy.reactive.RestResponse;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.OptionalLong;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.when;
+
+@QuarkusTest
+@TestHTTPEndpoint(ElectionResource.class)
+class ElectionResourceTest {
+
+    @InjectMock
+    ElectionApi api;
+
+    private final ElectionResults.Snapshot snapshot = new ElectionResults.Snapshot(1, OptionalLong.of(1), System.nanoTime(),
+            "0123456789abcdef", "[]".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void list_returnsTheSnapshotWithItsEtag() {
+        when(api.results()).thenReturn(snapshot);
+
+        given().when()
+                .get()
+                .then()
+                .statusCode(RestResponse.StatusCode.OK)
+                .header("ETag", "\"0123456789abcdef\"")
+                .body(equalTo("[]"));
+    }
+
+    @Test
+    void list_whenIfNoneMatchHoldsTheEtag_returnsNotModified() {
+        when(api.results()).thenReturn(snapshot);
+
+        given().header("If-None-Match", "\"0123456789abcdef\"")
+                .when()
+                .get()
+                .then()
+                .statusCode(RestResponse.StatusCode.NOT_MODIFIED)
+                .body(equalTo(""));
+    }
+
+    @Test
+    void list_whenIfNoneMatchHoldsAnOlderEtag_returnsTheSnapshot() {
+        when(api.results()).thenReturn(snapshot);
+
+        given().header("If-None-Match", "\"fedcba9876543210\"")
+                .when()
+                .get()
+                .then()
+                .statusCode(RestResponse.StatusCode.OK)
+                .header("ETag", "\"0123456789abcdef\"");
+    }
+}
@@ -0,0 +1,83 @@
+package infrastructure.schedulers;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.vertx.mutiny.redis.client.Command;
+import io.vertx.mutiny.redis.client.Response;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SyncLeaseTest {
+
+    private final RedisDataSource dataSource = mock(RedisDataSource.class);
+    // Replies of the lease scripts, in call order: 1 held, 0 not held; Redis fails once they run out
+    private final Deque<Long> replies = new ArrayDeque<>();
+
+    @Test
+    void stillHeld_withinTheRenewalInterval_doesNotCallRedis() {
+        SyncLease lease = lease(Duration.ofSeconds(30));
+        replies.add(1L);
+
+        assertTrue(lease.tryAcquire());
+        assertTrue(lease.stillHeld());
+
+        verify(dataSource, times(1)).execute(any(Command.class), any(String[].class));
+    }
+
+    @Test
+    void stillHeld_onceTheRenewalIsDue_renewsTheLease() {
+        SyncLease lease = lease(Duration.ZERO);
+        replies.add(1L);
+        replies.add(1L);
+
+        assertTrue(lease.tryAcquire());
+        assertTrue(lease.stillHeld());
+
+        verify(dataSource, times(2)).execute(any(Command.class), any(String[].class));
+    }
+
+    @Test
+    void stillHeld_whenAnotherReplicaTookTheLease_returnsFalse() {
+        SyncLease lease = lease(Duration.ZERO);
+        replies.add(1L);
+        replies.add(0L);
+
+        assertTrue(lease.tryAcquire());
+        assertFalse(lease.stillHeld());
+        assertFalse(lease.held());
+    }
+
+    @Test
+    void stillHeld_whenRenewalFails_returnsFalse() {
+        SyncLease lease = lease(Duration.ZERO);
+        replies.add(1L);
+
+        assertTrue(lease.tryAcquire());
+        assertFalse(lease.stillHeld());
+        assertFalse(lease.stillHeld());
+    }
+
+    private SyncLease lease(Duration ttl) {
+        when(dataSource.execute(any(Command.class), any(String[].class))).thenAnswer(invocation -> {
+            Long reply = replies.poll();
+            if (reply == null) {
+                throw new IllegalStateException("Redis unavailable");
+            }
+            Response response = mock(Response.class);
+            when(response.toLong()).thenReturn(reply);
+            return response;
+        });
+        return new SyncLease(dataSource, new SimpleMeterRegistry(), true, ttl);
+    }
+}
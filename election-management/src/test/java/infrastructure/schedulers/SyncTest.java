@@ -0,0 +1,138 @@
+package infrastructure.schedulers;
+
+import domain.Candidate;
+import domain.Election;
+import domain.ResultsChanged;
+import infrastructure.repositories.RedisElectionRepository;
+import infrastructure.repositories.SQLElectionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.enterprise.event.Event;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SyncTest {
+
+    private final SQLElectionRepository sqlRepository = mock(SQLElectionRepository.class);
+    private final RedisElectionRepository redisRepository = mock(RedisElectionRepository.class);
+    private final SyncLease lease = mock(SyncLease.class);
+    @SuppressWarnings("unchecked")
+    private final Event<ResultsChanged> resultsChanged = mock(Event.class);
+    private Sync sync;
+
+    private final Candidate candidate1 = Instancio.create(Candidate.class);
+    private final Candidate candidate2 = Instancio.create(Candidate.class);
+    private final Election election = new Election("election-1", Map.of(candidate1, 0, candidate2, 0));
+
+    @BeforeEach
+    void setUp() {
+        when(lease.tryAcquire()).thenReturn(true);
+        when(lease.stillHeld()).thenReturn(true);
+        sync = new Sync(sqlRepository, redisRepository, lease, resultsChanged, new SimpleMeterRegistry(),
+                true, 1000, Duration.ofMinutes(10), 4);
+        // The first run is a full pass
+        when(sqlRepository.findAll()).thenReturn(List.of());
+        when(redisRepository.takeDirty(anyInt())).thenReturn(Set.of());
+        sync.syncWorker();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sync.shutdown();
+    }
+
+    @Test
+    void syncWorker_writesOnlyTheChangedCandidatesOfDirtyElections() {
+        when(redisRepository.takeDirty(1000)).thenReturn(Set.of(election.id()));
+        when(sqlRepository.findByIds(Set.of(election.id()))).thenReturn(List.of(election));
+        when(redisRepository.sync(List.of(election)))
+                .thenReturn(List.of(new Election(election.id(), Map.of(candidate1, 3, candidate2, 0))));
+
+        sync.syncWorker();
+
+        verify(sqlRepository).sync(new Election(election.id(), Map.of(candidate1, 3)));
+        verify(resultsChanged).fire(any(ResultsChanged.class));
+        verify(redisRepository, never()).markDirty(any());
+    }
+
+    @Test
+    void syncWorker_whenNothingChanged_writesNothing() {
+        when(redisRepository.takeDirty(1000)).thenReturn(Set.of(election.id()));
+        when(sqlRepository.findByIds(Set.of(election.id()))).thenReturn(List.of(election));
+        when(redisRepository.sync(List.of(election))).thenReturn(List.of(election));
+
+        sync.syncWorker();
+
+        verify(sqlRepository, never()).sync(any(Election.class));
+        verify(resultsChanged, never()).fire(any(ResultsChanged.class));
+    }
+
+    @Test
+    void syncWorker_whenRedisReadFails_marksTheTakenElectionsDirtyAgain() {
+        when(redisRepository.takeDirty(1000)).thenReturn(Set.of(election.id()));
+        when(sqlRepository.findByIds(Set.of(election.id()))).thenReturn(List.of(election));
+        when(redisRepository.sync(anyList())).thenThrow(new RuntimeException("Failed to sync elections from Redis"));
+
+        assertThrows(RuntimeException.class, sync::syncWorker);
+
+        verify(redisRepository).markDirty(Set.of(election.id()));
+        verify(sqlRepository, never()).sync(any(Election.class));
+    }
+
+    @Test
+    void syncWorker_whenMarksCannotBePutBack_runsAFullPassNext() {
+        when(redisRepository.takeDirty(1000)).thenReturn(Set.of(election.id()));
+        when(sqlRepository.findByIds(Set.of(election.id()))).thenReturn(List.of(election));
+        when(redisRepository.sync(anyList())).thenThrow(new RuntimeException("Failed to sync elections from Redis"));
+        doThrow(new RuntimeException("Redis unavailable")).when(redisRepository).markDirty(any());
+
+        assertThrows(RuntimeException.class, sync::syncWorker);
+        when(sqlRepository.findAll()).thenReturn(List.of(election));
+        doReturn(List.of(election)).when(redisRepository).sync(anyList());
+        sync.syncWorker();
+
+        verify(sqlRepository, times(2)).findAll();
+    }
+
+    @Test
+    void syncWorker_whenLeaseIsLostDuringTheRun_stopsWritingAndMarksTheElectionsDirtyAgain() {
+        when(redisRepository.takeDirty(1000)).thenReturn(Set.of(election.id()));
+        when(sqlRepository.findByIds(Set.of(election.id()))).thenReturn(List.of(election));
+        when(redisRepository.sync(List.of(election)))
+                .thenReturn(List.of(new Election(election.id(), Map.of(candidate1, 3, candidate2, 0))));
+        when(lease.stillHeld()).thenReturn(false);
+
+        assertThrows(RuntimeException.class, sync::syncWorker);
+
+        verify(sqlRepository, never()).sync(any(Election.class));
+        verify(redisRepository).markDirty(Set.of(election.id()));
+    }
+
+    @Test
+    void syncWorker_whenLeaseIsHeldElsewhere_doesNothing() {
+        when(lease.tryAcquire()).thenReturn(false);
+
+        sync.syncWorker();
+
+        verify(redisRepository, never()).takeDirty(1000);
+        verify(sqlRepository, never()).findByIds(any());
+    }
+}
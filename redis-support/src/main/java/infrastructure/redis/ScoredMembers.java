@@ -0,0 +1,33 @@
+package infrastructure.redis;
+
+import io.vertx.mutiny.redis.client.Response;
+import io.vertx.redis.client.ResponseType;
+
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * Decoding of the WITHSCORES replies of the election:{id} sorted sets, shared by every application reading them
+ */
+public final class ScoredMembers {
+    private ScoredMembers() {
+    }
+
+    /**
+     * Calls the consumer with each member and score of a ZRANGE/ZREVRANGE WITHSCORES reply, in reply order:
+     * flat member/score pairs in RESP2, one array per pair in RESP3
+     */
+    public static void forEach(Response response, ObjDoubleConsumer<String> consumer) {
+        if (response == null || response.size() == 0) {
+            return;
+        }
+        if (response.get(0).type() == ResponseType.BULK) {
+            for (int i = 0; i + 1 < response.size(); i += 2) {
+                consumer.accept(response.get(i).toString(), response.get(i + 1).toDouble());
+            }
+        } else {
+            for (Response pair : response) {
+                consumer.accept(pair.get(0).toString(), pair.get(1).toDouble());
+            }
+        }
+    }
+}
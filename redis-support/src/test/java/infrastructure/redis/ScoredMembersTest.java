@@ -0,0 +1,59 @@
+package infrastructure.redis;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.mutiny.redis.client.Response;
+import io.vertx.redis.client.impl.types.BulkType;
+import io.vertx.redis.client.impl.types.MultiType;
+import io.vertx.redis.client.impl.types.NumberType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ScoredMembersTest {
+
+    @Test
+    void forEach_decodesFlatResp2Pairs() {
+        MultiType reply = MultiType.create(4, false);
+        reply.add(bulk("candidate-1"));
+        reply.add(bulk("3"));
+        reply.add(bulk("candidate-2"));
+        reply.add(bulk("1.5"));
+
+        assertEquals(List.of("candidate-1=3.0", "candidate-2=1.5"), decode(reply));
+    }
+
+    @Test
+    void forEach_decodesNestedResp3Pairs() {
+        MultiType reply = MultiType.create(2, false);
+        reply.add(pair("candidate-1", 3));
+        reply.add(pair("candidate-2", 1.5));
+
+        assertEquals(List.of("candidate-1=3.0", "candidate-2=1.5"), decode(reply));
+    }
+
+    @Test
+    void forEach_whenTheSortedSetDoesNotExist_callsNothing() {
+        assertEquals(List.of(), decode(MultiType.EMPTY_MULTI));
+        assertEquals(List.of(), decode(null));
+    }
+
+    private static List<String> decode(io.vertx.redis.client.Response reply) {
+        List<String> decoded = new ArrayList<>();
+        ScoredMembers.forEach(reply == null ? null : Response.newInstance(reply), (member, score) -> decoded.add(member + "=" + score));
+        return decoded;
+    }
+
+    private static MultiType pair(String member, double score) {
+        MultiType pair = MultiType.create(2, false);
+        pair.add(bulk(member));
+        pair.add(NumberType.create(score));
+        return pair;
+    }
+
+    private static BulkType bulk(String value) {
+        return BulkType.create(Buffer.buffer(value), false);
+    }
+}
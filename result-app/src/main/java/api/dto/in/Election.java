@@ -3,9 +3,23 @@ package api.dto.in;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public record Election(String id, List<Candidate> candidates) {
+    /**
+     * Same election with the vote counts of the candidates present in votes (candidate id -> votes) replaced
+     */
+    public Election withVotes(Map<String, Integer> votes) {
+        return new Election(id, candidates.stream()
+                .map(candidate -> {
+                    Integer count = votes.get(candidate.id());
+                    return count == null ? candidate : new Candidate(candidate.id(), candidate.photo(),
+                            candidate.fullName(), candidate.email(), candidate.phone(), candidate.jobTitle(), count);
+                })
+                .toList());
+    }
+
     @JsonInclude(JsonInclude.Include.NON_EMPTY)
     public record Candidate(String id,
                             Optional<String> photo,
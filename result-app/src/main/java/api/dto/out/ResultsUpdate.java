@@ -0,0 +1,23 @@
+package api.dto.out;
+
+import api.dto.in.Election;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Either a full snapshot of the subscribed elections or the vote counts that changed since the previous update
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ResultsUpdate(List<Election> snapshot, List<Delta> deltas) {
+    public record Delta(String election, String candidate, int votes) {
+    }
+
+    public static ResultsUpdate snapshot(List<Election> elections) {
+        return new ResultsUpdate(elections, null);
+    }
+
+    public static ResultsUpdate deltas(List<Delta> deltas) {
+        return new ResultsUpdate(null, deltas);
+    }
+}
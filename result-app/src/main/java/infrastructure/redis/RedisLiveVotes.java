@@ -0,0 +1,70 @@
+package infrastructure.redis;
+
+import io.quarkus.redis.datasource.ReactiveRedisDataSource;
+import io.quarkus.redis.datasource.pubsub.ReactivePubSubCommands;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.redis.client.Command;
+import io.vertx.mutiny.redis.client.Redis;
+import io.vertx.mutiny.redis.client.Request;
+import io.vertx.mutiny.redis.client.Response;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Read model over the vote counts kept by voting-app in Redis
+ *
+ * voting-app publishes the ids of the elections it wrote votes for on elections:votes,
+ * the counts themselves are read from the election:{id} sorted sets
+ */
+@ApplicationScoped
+public class RedisLiveVotes {
+    private static final String KEY = "election:";
+    private static final String VOTES_CHANNEL = "elections:votes";
+
+    private final ReactivePubSubCommands<String> pubsub;
+    private final Redis redis;
+
+    public RedisLiveVotes(ReactiveRedisDataSource dataSource) {
+        pubsub = dataSource.pubsub(String.class);
+        redis = dataSource.getRedis();
+    }
+
+    /**
+     * Calls the consumer with the election ids of every vote event
+     */
+    public Uni<Void> onVotes(Consumer<List<String>> consumer) {
+        return pubsub.subscribe(VOTES_CHANNEL, message -> consumer.accept(Arrays.asList(message.split(","))))
+                .replaceWithVoid();
+    }
+
+    /**
+     * Votes per candidate id of each election, all read in one pipelined exchange
+     */
+    public Uni<Map<String, Map<String, Integer>>> votes(Collection<String> electionIds) {
+        List<String> ids = List.copyOf(electionIds);
+        List<Request> requests = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            requests.add(Request.cmd(Command.ZRANGE).arg(KEY + id).arg(0).arg(-1).arg("WITHSCORES"));
+        }
+        return redis.batch(requests).map(responses -> {
+            Map<String, Map<String, Integer>> votes = new HashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                votes.put(ids.get(i), decode(responses.get(i)));
+            }
+            return votes;
+        });
+    }
+
+    private static Map<String, Integer> decode(Response response) {
+        Map<String, Integer> votes = new HashMap<>();
+        ScoredMembers.forEach(response, (candidate, score) -> votes.put(candidate, (int) score));
+        return votes;
+    }
+}
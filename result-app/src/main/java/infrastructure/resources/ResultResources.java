@@ -1,32 +1,49 @@
 package infrastructure.resources;
 
 import api.dto.in.Election;
-import infrastructure.rest.ElectionManagement;
+import api.dto.out.ResultsUpdate;
+import infrastructure.rest.ElectionResultsFeed;
 import io.smallrye.mutiny.Multi;
+import io.vertx.core.http.HttpServerResponse;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
-import org.eclipse.microprofile.rest.client.inject.RestClient;
 import org.jboss.resteasy.reactive.RestStreamElementType;
 
-import java.time.Duration;
 import java.util.List;
+import java.util.Set;
 
 @Path("/")
 public class ResultResources {
-    private final ElectionManagement electionManagement;
+    private final ElectionResultsFeed feed;
+    private final SlowConsumerGuard guard;
 
-    public ResultResources(@RestClient ElectionManagement electionManagement) {
-        this.electionManagement = electionManagement;
+    public ResultResources(ElectionResultsFeed feed, SlowConsumerGuard guard) {
+        this.feed = feed;
+        this.guard = guard;
     }
 
+    /**
+     * Latest results on subscription, then every change seen by the shared poller
+     * A slow client only gets the latest results once it catches up
+     */
     @GET
     @RestStreamElementType(MediaType.APPLICATION_JSON)
-    public Multi<List<Election>> results() {
-        return Multi.createFrom()
-                .ticks()
-                .every(Duration.ofSeconds(10))
-                .onItem()
-                .transformToMultiAndMerge(n -> electionManagement.getElections().toMulti());
+    public Multi<List<Election>> results(@Context HttpServerResponse response) {
+        return guard.pace(guard.conflate(feed.results()), response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Delta-encoded results: one snapshot of the requested elections (all of them without id),
+     * then only {election, candidate, votes} for the counts that changed
+     */
+    @GET
+    @Path("elections")
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<ResultsUpdate> updates(@QueryParam("id") Set<String> electionIds, @Context HttpServerResponse response) {
+        Set<String> ids = electionIds == null ? Set.of() : Set.copyOf(electionIds);
+        return guard.pace(ElectionResultsFeed.deltas(guard.conflate(feed.results()), ids), response);
+    }
+}
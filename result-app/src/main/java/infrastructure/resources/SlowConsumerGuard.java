@@ -0,0 +1,140 @@
+package infrastructure.resources;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.UniEmitter;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServerResponse;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps slow result stream clients from holding memory on the server
+ *
+ * - conflate: a subscriber that is not ready keeps only the latest results, intermediate ones are dropped
+ * - pace: at most results.sse.max-buffered-bytes are queued on a connection, further updates wait
+ *   (and are conflated) until it drains; a connection not draining within results.sse.max-stall is closed
+ */
+@ApplicationScoped
+public class SlowConsumerGuard {
+    private final int maxBufferedBytes;
+    private final Duration maxStall;
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter conflated;
+    private final Counter stalled;
+    private final Counter disconnected;
+
+    public SlowConsumerGuard(MeterRegistry registry,
+                             @ConfigProperty(name = "results.sse.max-buffered-bytes", defaultValue = "262144") int maxBufferedBytes,
+                             @ConfigProperty(name = "results.sse.max-stall", defaultValue = "30S") Duration maxStall) {
+        this.maxBufferedBytes = maxBufferedBytes;
+        this.maxStall = maxStall;
+
+        Gauge.builder("results.sse.subscribers", subscribers, AtomicInteger::get)
+                .description("Open result streams")
+                .register(registry);
+        this.conflated = Counter.builder("results.sse.conflated")
+                .description("Results updates dropped because a newer one replaced them before a slow client was ready")
+                .register(registry);
+        this.stalled = Counter.builder("results.sse.stalled")
+                .description("Updates held back because the connection had max-buffered-bytes queued")
+                .register(registry);
+        this.disconnected = Counter.builder("results.sse.disconnected")
+                .description("Result streams closed because the connection did not drain within max-stall")
+                .register(registry);
+    }
+
+    /**
+     * Only the latest item is kept while downstream has no demand
+     */
+    public <T> Multi<T> conflate(Multi<T> updates) {
+        return Multi.createFrom().deferred(() -> {
+            AtomicLong arrived = new AtomicLong();
+            return updates.onItem().invoke(arrived::incrementAndGet)
+                    .onOverflow().dropPreviousItems()
+                    .onItem().invoke(() -> {
+                        long dropped = arrived.getAndSet(0) - 1;
+                        if (dropped > 0) {
+                            conflated.increment(dropped);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Requests the next update only once the connection has room for it
+     */
+    public <T> Multi<T> pace(Multi<T> updates, HttpServerResponse response) {
+        return Multi.createFrom().deferred(() -> {
+            response.setWriteQueueMaxSize(maxBufferedBytes);
+            Drain drain = new Drain(response, Vertx.currentContext());
+            return updates.onItem()
+                    .transformToUniAndConcatenate(update -> writable(drain).replaceWith(update));
+        })
+                .onSubscription().invoke(subscribers::incrementAndGet)
+                .onTermination().invoke(subscribers::decrementAndGet);
+    }
+
+    private Uni<Void> writable(Drain drain) {
+        return Uni.createFrom().<Void>emitter(drain::await)
+                .ifNoItem().after(maxStall).failWith(() -> {
+                    disconnected.increment();
+                    return new IllegalStateException("Result stream client did not drain within " + maxStall);
+                });
+    }
+
+    /**
+     * Waits for a response's write queue to drain
+     * The queue is checked and the wait registered on the response's context, where the drain event is also
+     * delivered, so a drain cannot slip in between; the drain handler is set once per stream and never replaced
+     */
+    private final class Drain {
+        private final HttpServerResponse response;
+        private final Context context;
+        // Touched only on the response's context
+        private UniEmitter<? super Void> waiting;
+
+        Drain(HttpServerResponse response, Context context) {
+            this.response = response;
+            this.context = context;
+            response.drainHandler(drained -> release());
+        }
+
+        void await(UniEmitter<? super Void> emitter) {
+            if (context == null || Vertx.currentContext() == context) {
+                check(emitter);
+            } else {
+                context.runOnContext(ignored -> check(emitter));
+            }
+        }
+
+        private void check(UniEmitter<? super Void> emitter) {
+            if (!response.writeQueueFull()) {
+                emitter.complete(null);
+                return;
+            }
+            stalled.increment();
+            waiting = emitter;
+            // Off a Vert.x context the drain may have fired before the wait was registered
+            if (!response.writeQueueFull()) {
+                release();
+            }
+        }
+
+        private void release() {
+            UniEmitter<? super Void> emitter = waiting;
+            if (emitter != null) {
+                waiting = null;
+                emitter.complete(null);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package infrastructure.rest;
+
+import api.dto.in.Election;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.GenericType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+import java.util.List;
+
+/**
+ * Fetches the election results with conditional requests, reusing the last results on 304
+ */
+@ApplicationScoped
+public class ConditionalElectionManagement {
+    private static final GenericType<List<Election>> ELECTIONS = new GenericType<>() {
+    };
+
+    private final ElectionManagement electionManagement;
+    private volatile Cached cached;
+
+    public ConditionalElectionManagement(@RestClient ElectionManagement electionManagement) {
+        this.electionManagement = electionManagement;
+    }
+
+    public Uni<List<Election>> getElections() {
+        Cached current = cached;
+        return electionManagement.getElections(current == null ? null : current.etag())
+                .map(response -> {
+                    try (response) {
+                        if (current != null && response.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode()) {
+                            return current.elections();
+                        }
+                        List<Election> elections = response.readEntity(ELECTIONS);
+                        EntityTag etag = response.getEntityTag();
+                        cached = etag == null ? null : new Cached(etag.toString(), elections);
+                        return elections;
+                    }
+                });
+    }
+
+    private record Cached(String etag, List<Election> elections) {
+    }
+}
@@ -0,0 +1,81 @@
+package infrastructure.rest;
+
+import api.dto.in.Election;
+import api.dto.out.ResultsUpdate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Per-subscriber state turning successive full results into a snapshot followed by vote deltas
+ *
+ * A new snapshot is sent instead of deltas whenever a subscribed election or one of its candidates
+ * was not in the previous results, since deltas carry no candidate details
+ */
+class DeltaEncoder {
+    private final Set<String> electionIds;
+    // election id -> candidate id -> votes, as last sent
+    private Map<String, Map<String, Integer>> sent;
+
+    /**
+     * @param electionIds elections to keep, every election when empty
+     */
+    DeltaEncoder(Set<String> electionIds) {
+        this.electionIds = electionIds;
+    }
+
+    /**
+     * Empty when nothing changed for the subscribed elections
+     */
+    Optional<ResultsUpdate> next(List<Election> results) {
+        List<Election> selected = electionIds.isEmpty()
+                ? results
+                : results.stream().filter(election -> electionIds.contains(election.id())).toList();
+
+        Map<String, Map<String, Integer>> current = votes(selected);
+        if (sent == null || !sameCandidates(current)) {
+            sent = current;
+            return Optional.of(ResultsUpdate.snapshot(selected));
+        }
+
+        List<ResultsUpdate.Delta> deltas = new ArrayList<>();
+        current.forEach((election, candidates) -> {
+            Map<String, Integer> previous = sent.get(election);
+            candidates.forEach((candidate, votes) -> {
+                if (!votes.equals(previous.get(candidate))) {
+                    deltas.add(new ResultsUpdate.Delta(election, candidate, votes));
+                }
+            });
+        });
+        sent = current;
+        return deltas.isEmpty() ? Optional.empty() : Optional.of(ResultsUpdate.deltas(deltas));
+    }
+
+    private boolean sameCandidates(Map<String, Map<String, Integer>> current) {
+        if (!current.keySet().equals(sent.keySet())) {
+            return false;
+        }
+        for (Map.Entry<String, Map<String, Integer>> election : current.entrySet()) {
+            if (!sent.get(election.getKey()).keySet().equals(election.getValue().keySet())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, Map<String, Integer>> votes(List<Election> elections) {
+        Map<String, Map<String, Integer>> votes = new HashMap<>();
+        for (Election election : elections) {
+            Map<String, Integer> candidates = new HashMap<>();
+            for (Election.Candidate candidate : election.candidates()) {
+                candidates.put(candidate.id(), candidate.votes() == null ? 0 : candidate.votes());
+            }
+            votes.put(election.id(), candidates);
+        }
+        return votes;
+    }
+}
@@ -1,16 +1,19 @@
 package infrastructure.rest;
 
-import api.dto.in.Election;
 import io.smallrye.mutiny.Uni;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
 
-import java.util.List;
-
 @RegisterRestClient(configKey = "election-management")
 public interface ElectionManagement {
+    /**
+     * 304 without a body when the results still match the ETag, no header is sent for a null ETag
+     */
     @GET
     @Path("/api/elections")
-    Uni<List<Election>> getElections();
-}
\ No newline at end of file
+    Uni<Response> getElections(@HeaderParam(HttpHeaders.IF_NONE_MATCH) String etag);
+}
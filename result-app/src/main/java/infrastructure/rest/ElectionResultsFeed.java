@@ -0,0 +1,142 @@
+package infrastructure.rest;
+
+import api.dto.in.Election;
+import api.dto.out.ResultsUpdate;
+import infrastructure.redis.RedisLiveVotes;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single upstream shared by every results subscriber of this instance
+ *
+ * Polling starts with the first subscriber and then runs for the life of the instance,
+ * each subscriber receives the latest results right away and every change after that,
+ * so the load on election-management does not depend on the number of viewers
+ *
+ * Live mode: vote events published by voting-app mark elections changed, and at most
+ * results.live.max-updates-per-second times per second their counts are read from Redis
+ * and laid over the polled results. Redis holds the authoritative counts (the database is
+ * a copy made by Sync), so they are also laid over every poll
+ */
+@ApplicationScoped
+public class ElectionResultsFeed {
+    private static final Logger LOG = Logger.getLogger(ElectionResultsFeed.class);
+
+    private final ConditionalElectionManagement electionManagement;
+    private final RedisLiveVotes liveVotes;
+    private final Multi<List<Election>> results;
+
+    // Elections with vote events not read yet
+    private final Set<String> changed = ConcurrentHashMap.newKeySet();
+    // Last counts read from Redis per election, candidate id -> votes
+    private final Map<String, Map<String, Integer>> votes = new ConcurrentHashMap<>();
+    private volatile List<Election> polled;
+
+    public ElectionResultsFeed(ConditionalElectionManagement electionManagement,
+                               RedisLiveVotes liveVotes,
+                               @ConfigProperty(name = "results.poll-interval", defaultValue = "10S") Duration pollInterval,
+                               @ConfigProperty(name = "results.live.enabled", defaultValue = "true") boolean live,
+                               @ConfigProperty(name = "results.live.max-updates-per-second", defaultValue = "2") int maxUpdatesPerSecond) {
+        if (live && maxUpdatesPerSecond < 1) {
+            throw new IllegalArgumentException("results.live.max-updates-per-second must be greater than 0, was " + maxUpdatesPerSecond);
+        }
+        this.electionManagement = electionManagement;
+        this.liveVotes = liveVotes;
+
+        Multi<List<Election>> polls = Multi.createFrom()
+                .ticks()
+                .every(pollInterval)
+                // A poll still running when the next tick fires makes that tick be dropped
+                .onOverflow().drop()
+                .onItem()
+                .transformToUniAndConcatenate(tick -> poll());
+        Multi<List<Election>> upstream = live
+                ? Multi.createBy().merging().streams(polls, liveUpdates(Duration.ofNanos(1_000_000_000L / maxUpdatesPerSecond)))
+                : polls;
+        // 304s hand back the same results, only changes are pushed
+        this.results = Multi.createBy().replaying().upTo(1).ofMulti(upstream.skip().repetitions());
+    }
+
+    public Multi<List<Election>> results() {
+        return results;
+    }
+
+    /**
+     * Snapshot of the given elections (every election when empty), then only the vote counts that changed
+     * Results may be conflated upstream, deltas are always computed against what this subscriber was sent
+     */
+    public static Multi<ResultsUpdate> deltas(Multi<List<Election>> results, Set<String> electionIds) {
+        return Multi.createFrom().deferred(() -> {
+            DeltaEncoder encoder = new DeltaEncoder(electionIds);
+            return results.map(encoder::next)
+                    .filter(Optional::isPresent)
+                    .map(Optional::get);
+        });
+    }
+
+    private Uni<List<Election>> poll() {
+        return electionManagement.getElections()
+                .map(elections -> {
+                    polled = elections;
+                    return withLiveVotes(elections);
+                })
+                .onFailure().invoke(e -> LOG.warnf(e, "Polling election-management failed, keeping the last results"))
+                .onFailure().recoverWithNull();
+    }
+
+    /**
+     * Subscribes to vote events with the feed, then reads the changed elections once per interval at most
+     */
+    private Multi<List<Election>> liveUpdates(Duration interval) {
+        return Multi.createFrom()
+                .ticks()
+                .every(interval)
+                .onSubscription().call(() -> liveVotes.onVotes(changed::addAll))
+                .onOverflow().drop()
+                .onItem()
+                .transformToUniAndConcatenate(tick -> readChanged());
+    }
+
+    /**
+     * Null (nothing emitted) when no election changed or no results were polled yet to attach counts to
+     */
+    private Uni<List<Election>> readChanged() {
+        if (changed.isEmpty() || polled == null) {
+            return Uni.createFrom().nullItem();
+        }
+        List<String> ids = List.copyOf(changed);
+        changed.removeAll(ids);
+        return liveVotes.votes(ids)
+                .map(read -> {
+                    votes.putAll(read);
+                    return withLiveVotes(polled);
+                })
+                .onFailure().invoke(e -> {
+                    LOG.warnf(e, "Reading live votes from Redis failed");
+                    changed.addAll(ids);
+                })
+                .onFailure().recoverWithNull();
+    }
+
+    private List<Election> withLiveVotes(List<Election> elections) {
+        if (votes.isEmpty()) {
+            return elections;
+        }
+        return elections.stream()
+                .map(election -> {
+                    Map<String, Integer> live = votes.get(election.id());
+                    return live == null ? election : election.withVotes(live);
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,322 @@
+package infrastructure.websocket;
+
+import api.dto.in.Election;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import infrastructure.rest.ElectionResultsFeed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Multi;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes the shared results to WebSocket clients as binary tally frames
+ *
+ * Elections and candidates are addressed by ordinals defined in an index, sent as a JSON text
+ * message on connect and whenever an election or candidate appears or disappears:
+ * {"version": 3, "elections": [{"id": "...", "candidates": ["...", ...]}, ...]}
+ *
+ * Each snapshot is encoded once, as a full frame and as a delta against the previous snapshot,
+ * and every client is sent a read-only view of the same bytes, so the per-client cost does not
+ * include encoding (the container still copies the bytes into its own write buffer). The view is the
+ * only allocation per send: the container advances its position, so clients cannot share one; each
+ * session completes its sends through one handler of its own. A client gets the delta when it holds
+ * the previous snapshot, otherwise the full frame. A client still sending skips intermediate snapshots
+ * and gets the latest one as a full frame when it is done, so slow clients only cost one frame.
+ * A client whose send did not complete within results.sse.max-stall is closed by a check running every
+ * half max-stall, whether snapshots keep coming or not
+ */
+@ApplicationScoped
+public class ResultsBroadcaster {
+    private static final Logger LOG = Logger.getLogger(ResultsBroadcaster.class);
+
+    private final ElectionResultsFeed feed;
+    private final ObjectMapper mapper;
+    private final TallyEncoder encoder = new TallyEncoder();
+    private final Map<String, Peer> peers = new ConcurrentHashMap<>();
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private final Counter fullFrames;
+    private final Counter deltaFrames;
+    private final Counter disconnected;
+    private final Duration maxStall;
+
+    // Written by the single upstream subscriber only
+    private Index index;
+    private int[][] votes;
+    private volatile Snapshot current;
+
+    public ResultsBroadcaster(ElectionResultsFeed feed,
+                              ObjectMapper mapper,
+                              MeterRegistry registry,
+                              @ConfigProperty(name = "results.sse.max-stall", defaultValue = "30S") Duration maxStall) {
+        this.feed = feed;
+        this.mapper = mapper;
+        this.maxStall = maxStall;
+        registry.gaugeMapSize("results.ws.sessions", List.of(), peers);
+        this.fullFrames = frameCounter(registry, "full");
+        this.deltaFrames = frameCounter(registry, "delta");
+        this.disconnected = Counter.builder("results.ws.disconnected")
+                .description("WebSocket clients closed because a send did not complete within max-stall")
+                .register(registry);
+    }
+
+    void join(Session session) {
+        Peer peer = new Peer(session);
+        peers.put(session.getId(), peer);
+        if (subscribed.compareAndSet(false, true)) {
+            feed.results().subscribe().with(this::publish,
+                    failure -> LOG.errorf(failure, "Results feed failed, WebSocket clients stop receiving updates"));
+            Multi.createFrom().ticks().every(maxStall.dividedBy(2))
+                    .onOverflow().drop()
+                    .subscribe().with(tick -> closeStalled(),
+                            failure -> LOG.errorf(failure, "WebSocket stall check failed, stalled clients stay open"));
+        }
+        send(peer);
+    }
+
+    void leave(Session session) {
+        peers.remove(session.getId());
+    }
+
+    private record Index(int version, Map<String, Map<String, Integer>> ordinals, String json) {
+    }
+
+    private record Snapshot(Index index, long version, TallyEncoder.Frame full, TallyEncoder.Frame delta) {
+    }
+
+    /**
+     * One per session, also completing its sends so that a send allocates no callback
+     * The fields of the send in flight are written before the send and read by its completion
+     */
+    private final class Peer implements SendHandler {
+        final Session session;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        // Start of the send in flight, 0 when none
+        private volatile long sendStartedNanos;
+        volatile boolean closed;
+        volatile int indexVersion = -1;
+        volatile long snapshotVersion = -1;
+        private Snapshot inFlight;
+        private TallyEncoder.Frame frame;
+        // The index goes out before the frame when the client holds an older one
+        private boolean sendingIndex;
+
+        Peer(Session session) {
+            this.session = session;
+        }
+
+        void send(Snapshot snapshot, TallyEncoder.Frame frame) {
+            this.inFlight = snapshot;
+            this.frame = frame;
+            sendingIndex = indexVersion != snapshot.index().version();
+            if (sendingIndex) {
+                session.getAsyncRemote().sendText(snapshot.index().json(), this);
+            } else {
+                session.getAsyncRemote().sendBinary(frame.view(), this);
+            }
+        }
+
+        @Override
+        public void onResult(SendResult result) {
+            Snapshot snapshot = inFlight;
+            TallyEncoder.Frame sent = frame;
+            if (sendingIndex) {
+                if (!result.isOK()) {
+                    sent.release();
+                    drop(this, result.getException());
+                    return;
+                }
+                indexVersion = snapshot.index().version();
+                sendingIndex = false;
+                session.getAsyncRemote().sendBinary(sent.view(), this);
+                return;
+            }
+            inFlight = null;
+            frame = null;
+            sent.release();
+            if (!result.isOK()) {
+                drop(this, result.getException());
+                return;
+            }
+            snapshotVersion = snapshot.version();
+            doneSending();
+            if (current != snapshot) {
+                ResultsBroadcaster.this.send(this);
+            }
+        }
+
+        boolean startSending() {
+            if (!sending.compareAndSet(false, true)) {
+                return false;
+            }
+            sendStartedNanos = System.nanoTime();
+            return true;
+        }
+
+        void doneSending() {
+            sendStartedNanos = 0;
+            sending.set(false);
+        }
+
+        boolean stalled(long now, Duration maxStall) {
+            long started = sendStartedNanos;
+            return started != 0 && now - started > maxStall.toNanos();
+        }
+    }
+
+    void publish(List<Election> elections) {
+        Index previousIndex = index;
+        if (previousIndex == null || !sameShape(previousIndex, elections)) {
+            index = index(previousIndex == null ? 1 : previousIndex.version() + 1, elections);
+        }
+
+        int[][] next = tallies(index, elections);
+        Snapshot previous = current;
+        long version = previous == null ? 1 : previous.version() + 1;
+        TallyEncoder.Frame delta = index == previousIndex
+                ? encoder.delta(index.version(), version, votes, next)
+                : null;
+        if (previous != null && index == previousIndex && delta == null) {
+            return;
+        }
+        votes = next;
+        current = new Snapshot(index, version, encoder.full(index.version(), version, next), delta);
+
+        if (previous != null) {
+            previous.full().release();
+            if (previous.delta() != null) {
+                previous.delta().release();
+            }
+        }
+        for (Peer peer : peers.values()) {
+            send(peer);
+        }
+    }
+
+    void closeStalled() {
+        long now = System.nanoTime();
+        for (Peer peer : peers.values()) {
+            if (peer.stalled(now, maxStall)) {
+                disconnected.increment();
+                drop(peer, new IllegalStateException("WebSocket send did not complete within " + maxStall));
+            }
+        }
+    }
+
+    /**
+     * Sends the latest snapshot unless a send is in flight, in which case its completion sends it
+     */
+    private void send(Peer peer) {
+        if (peer.closed || !peer.startSending()) {
+            return;
+        }
+        Snapshot snapshot = current;
+        if (snapshot == null || peer.snapshotVersion == snapshot.version()) {
+            peer.doneSending();
+            if (current != snapshot) {
+                send(peer);
+            }
+            return;
+        }
+
+        boolean delta = snapshot.delta() != null
+                && peer.indexVersion == snapshot.index().version()
+                && peer.snapshotVersion == snapshot.version() - 1;
+        TallyEncoder.Frame frame = delta ? snapshot.delta() : snapshot.full();
+        if (!frame.retain()) {
+            // Replaced and recycled meanwhile, pick up the newer snapshot
+            peer.doneSending();
+            send(peer);
+            return;
+        }
+        (delta ? deltaFrames : fullFrames).increment();
+        peer.send(snapshot, frame);
+    }
+
+    private void drop(Peer peer, Throwable failure) {
+        peer.closed = true;
+        // Already dropped, by the stall check or by a send failing meanwhile
+        if (!peers.remove(peer.session.getId(), peer)) {
+            return;
+        }
+        LOG.debugf(failure, "Dropping WebSocket client %s", peer.session.getId());
+        try {
+            peer.session.close();
+        } catch (IOException e) {
+            LOG.debugf(e, "Closing WebSocket client %s failed", peer.session.getId());
+        }
+    }
+
+    private static boolean sameShape(Index index, List<Election> elections) {
+        if (index.ordinals().size() != elections.size()) {
+            return false;
+        }
+        for (Election election : elections) {
+            Map<String, Integer> candidates = index.ordinals().get(election.id());
+            if (candidates == null || candidates.size() != election.candidates().size()) {
+                return false;
+            }
+            for (Election.Candidate candidate : election.candidates()) {
+                if (!candidates.containsKey(candidate.id())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private Index index(int version, List<Election> elections) {
+        Map<String, Map<String, Integer>> ordinals = new LinkedHashMap<>();
+        List<Map<String, Object>> entries = new ArrayList<>(elections.size());
+        for (Election election : elections) {
+            Map<String, Integer> candidates = new LinkedHashMap<>();
+            for (Election.Candidate candidate : election.candidates()) {
+                candidates.put(candidate.id(), candidates.size());
+            }
+            ordinals.put(election.id(), candidates);
+            entries.add(Map.of("id", election.id(), "candidates", List.copyOf(candidates.keySet())));
+        }
+        try {
+            return new Index(version, ordinals, mapper.writeValueAsString(Map.of("version", version, "elections", entries)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize the results index", e);
+        }
+    }
+
+    private static int[][] tallies(Index index, List<Election> elections) {
+        Map<String, Election> byId = new LinkedHashMap<>();
+        elections.forEach(election -> byId.put(election.id(), election));
+        int[][] tallies = new int[index.ordinals().size()][];
+        int e = 0;
+        for (Map.Entry<String, Map<String, Integer>> election : index.ordinals().entrySet()) {
+            Map<String, Integer> candidates = election.getValue();
+            int[] counts = new int[candidates.size()];
+            for (Election.Candidate candidate : byId.get(election.getKey()).candidates()) {
+                counts[candidates.get(candidate.id())] = candidate.votes() == null ? 0 : candidate.votes();
+            }
+            tallies[e++] = counts;
+        }
+        return tallies;
+    }
+
+    private static Counter frameCounter(MeterRegistry registry, String type) {
+        return Counter.builder("results.ws.frames")
+                .description("Binary tally frames sent to WebSocket clients")
+                .tag("type", type)
+                .register(registry);
+    }
+}
@@ -0,0 +1,36 @@
+package infrastructure.websocket;
+
+import jakarta.inject.Inject;
+import jakarta.websocket.OnClose;
+import jakarta.websocket.OnError;
+import jakarta.websocket.OnOpen;
+import jakarta.websocket.Session;
+import jakarta.websocket.server.ServerEndpoint;
+import org.jboss.logging.Logger;
+
+/**
+ * Binary results channel for large displays, see ResultsBroadcaster for the message format
+ */
+@ServerEndpoint("/results/ws")
+public class ResultsSocket {
+    private static final Logger LOG = Logger.getLogger(ResultsSocket.class);
+
+    @Inject
+    ResultsBroadcaster broadcaster;
+
+    @OnOpen
+    public void onOpen(Session session) {
+        broadcaster.join(session);
+    }
+
+    @OnClose
+    public void onClose(Session session) {
+        broadcaster.leave(session);
+    }
+
+    @OnError
+    public void onError(Session session, Throwable failure) {
+        LOG.debugf(failure, "WebSocket client %s failed", session.getId());
+        broadcaster.leave(session);
+    }
+}
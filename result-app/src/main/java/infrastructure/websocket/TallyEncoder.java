@@ -0,0 +1,149 @@
+package infrastructure.websocket;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Binary tally frames, written into pooled direct buffers
+ *
+ * Every value is an unsigned LEB128 varint. Frame layout:
+ * - full:  type 0, index version, snapshot version, then the votes of every candidate
+ *          in index order (election ordinal, then candidate ordinal)
+ * - delta: type 1, index version, snapshot version, count, then count triples of
+ *          (election ordinal, candidate ordinal, votes) changed since the previous snapshot
+ *
+ * A frame is encoded once per snapshot and its bytes are shared by every connection, each send
+ * reading them through its own view. It is reference counted and its buffer goes back to the pool
+ * once the last send completed
+ */
+final class TallyEncoder {
+    static final byte FULL = 0;
+    static final byte DELTA = 1;
+
+    private static final int MAX_VARINT_BYTES = 5;
+    private static final int MIN_BUFFER_BYTES = 4096;
+    private static final int MAX_POOLED_BUFFERS = 16;
+
+    private final Queue<ByteBuffer> pool = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param votes votes[election ordinal][candidate ordinal]
+     */
+    Frame full(int indexVersion, long snapshotVersion, int[][] votes) {
+        int candidates = 0;
+        for (int[] election : votes) {
+            candidates += election.length;
+        }
+        ByteBuffer buffer = acquire(1 + 3 * MAX_VARINT_BYTES + candidates * MAX_VARINT_BYTES);
+        buffer.put(FULL);
+        writeVarint(buffer, indexVersion);
+        writeVarint(buffer, snapshotVersion);
+        for (int[] election : votes) {
+            for (int count : election) {
+                writeVarint(buffer, count);
+            }
+        }
+        return new Frame(buffer.flip());
+    }
+
+    /**
+     * Null when no count changed
+     */
+    Frame delta(int indexVersion, long snapshotVersion, int[][] previous, int[][] votes) {
+        int changed = 0;
+        for (int e = 0; e < votes.length; e++) {
+            for (int c = 0; c < votes[e].length; c++) {
+                if (votes[e][c] != previous[e][c]) {
+                    changed++;
+                }
+            }
+        }
+        if (changed == 0) {
+            return null;
+        }
+        ByteBuffer buffer = acquire(1 + 3 * MAX_VARINT_BYTES + changed * 3 * MAX_VARINT_BYTES);
+        buffer.put(DELTA);
+        writeVarint(buffer, indexVersion);
+        writeVarint(buffer, snapshotVersion);
+        writeVarint(buffer, changed);
+        for (int e = 0; e < votes.length; e++) {
+            for (int c = 0; c < votes[e].length; c++) {
+                if (votes[e][c] != previous[e][c]) {
+                    writeVarint(buffer, e);
+                    writeVarint(buffer, c);
+                    writeVarint(buffer, votes[e][c]);
+                }
+            }
+        }
+        return new Frame(buffer.flip());
+    }
+
+    static void writeVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private ByteBuffer acquire(int capacity) {
+        ByteBuffer buffer;
+        while ((buffer = pool.poll()) != null) {
+            if (buffer.capacity() >= capacity) {
+                return buffer.clear();
+            }
+        }
+        return ByteBuffer.allocateDirect(Math.max(capacity, MIN_BUFFER_BYTES));
+    }
+
+    private void recycle(ByteBuffer buffer) {
+        if (pool.size() < MAX_POOLED_BUFFERS) {
+            pool.offer(buffer);
+        }
+    }
+
+    /**
+     * Encoded frame, created with one reference held by its snapshot
+     */
+    final class Frame {
+        private final ByteBuffer buffer;
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private Frame(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        int size() {
+            return buffer.remaining();
+        }
+
+        /**
+         * False when the frame was already recycled
+         */
+        boolean retain() {
+            int current;
+            do {
+                current = references.get();
+                if (current == 0) {
+                    return false;
+                }
+            } while (!references.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        void release() {
+            if (references.decrementAndGet() == 0) {
+                recycle(buffer);
+            }
+        }
+
+        /**
+         * Independent read position over the shared bytes, valid while a reference is held
+         */
+        ByteBuffer view() {
+            return buffer.duplicate();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package infrastructure.resources;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpServerResponse;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SlowConsumerGuardTest {
+
+    private final SlowConsumerGuard guard = new SlowConsumerGuard(new SimpleMeterRegistry(), 1024, Duration.ofSeconds(5));
+    // Answers of writeQueueFull, in call order; the queue has room once they run out
+    private final Deque<Boolean> full = new ArrayDeque<>();
+    private final List<Handler<Void>> drainHandlers = new ArrayList<>();
+
+    @Test
+    void pace_whenTheQueueHasRoom_passesTheUpdateOn() {
+        AssertSubscriber<Integer> subscriber = guard.pace(Multi.createFrom().items(1, 2), response())
+                .subscribe().withSubscriber(AssertSubscriber.create(2));
+
+        subscriber.assertCompleted().assertItems(1, 2);
+    }
+
+    @Test
+    void pace_whenTheQueueIsFull_holdsTheUpdateUntilItDrains() {
+        full.add(true);
+        full.add(true);
+        AssertSubscriber<Integer> subscriber = guard.pace(Multi.createFrom().items(1), response())
+                .subscribe().withSubscriber(AssertSubscriber.create(1));
+
+        subscriber.assertNotTerminated().assertHasNotReceivedAnyItem();
+        drainHandlers.get(0).handle(null);
+
+        subscriber.assertCompleted().assertItems(1);
+    }
+
+    @Test
+    void pace_whenTheQueueDrainsBeforeTheWaitIsRegistered_passesTheUpdateOn() {
+        full.add(true);
+        full.add(false);
+        AssertSubscriber<Integer> subscriber = guard.pace(Multi.createFrom().items(1), response())
+                .subscribe().withSubscriber(AssertSubscriber.create(1));
+
+        subscriber.assertCompleted().assertItems(1);
+    }
+
+    @Test
+    void pace_setsTheDrainHandlerOncePerStream() {
+        for (int i = 0; i < 4; i++) {
+            full.add(true);
+        }
+        AssertSubscriber<Integer> subscriber = guard.pace(Multi.createFrom().items(1, 2), response())
+                .subscribe().withSubscriber(AssertSubscriber.create(2));
+        drainHandlers.get(0).handle(null);
+        subscriber.assertItems(1);
+        drainHandlers.get(0).handle(null);
+
+        subscriber.assertCompleted().assertItems(1, 2);
+        assertEquals(1, drainHandlers.size());
+    }
+
+    private HttpServerResponse response() {
+        return (HttpServerResponse) Proxy.newProxyInstance(HttpServerResponse.class.getClassLoader(),
+                new Class<?>[]{HttpServerResponse.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "writeQueueFull" -> !full.isEmpty() && full.poll();
+                    case "drainHandler" -> {
+                        @SuppressWarnings("unchecked")
+                        Handler<Void> handler = (Handler<Void>) args[0];
+                        drainHandlers.add(handler);
+                        yield proxy;
+                    }
+                    case "setWriteQueueMaxSize" -> proxy;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,74 @@
+package infrastructure.rest;
+
+import api.dto.in.Election;
+import api.dto.out.ResultsUpdate;
+import io.smallrye.mutiny.Multi;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeltaEncoderTest {
+
+    @Test
+    void next_sendsASnapshotThenNothingThenDeltasThenANewSnapshot() {
+        DeltaEncoder encoder = new DeltaEncoder(Set.of());
+        List<Election> first = List.of(election("e1", candidate("c1", 0), candidate("c2", 0)));
+
+        assertEquals(Optional.of(ResultsUpdate.snapshot(first)), encoder.next(first));
+
+        assertTrue(encoder.next(first).isEmpty());
+
+        List<Election> voted = List.of(election("e1", candidate("c1", 3), candidate("c2", 0)));
+        assertEquals(Optional.of(ResultsUpdate.deltas(List.of(new ResultsUpdate.Delta("e1", "c1", 3)))), encoder.next(voted));
+
+        List<Election> withNewCandidate = List.of(election("e1", candidate("c1", 3), candidate("c2", 0), candidate("c3", 0)));
+        assertEquals(Optional.of(ResultsUpdate.snapshot(withNewCandidate)), encoder.next(withNewCandidate));
+    }
+
+    @Test
+    void next_whenANewElectionAppears_sendsANewSnapshot() {
+        DeltaEncoder encoder = new DeltaEncoder(Set.of());
+        encoder.next(List.of(election("e1", candidate("c1", 0))));
+
+        List<Election> results = List.of(election("e1", candidate("c1", 0)), election("e2", candidate("c1", 0)));
+
+        assertEquals(Optional.of(ResultsUpdate.snapshot(results)), encoder.next(results));
+    }
+
+    @Test
+    void next_keepsOnlyTheSubscribedElections() {
+        DeltaEncoder encoder = new DeltaEncoder(Set.of("e2"));
+        Election e2 = election("e2", candidate("c1", 0));
+
+        assertEquals(Optional.of(ResultsUpdate.snapshot(List.of(e2))),
+                encoder.next(List.of(election("e1", candidate("c1", 0)), e2)));
+
+        // Votes in an election nobody subscribed to change nothing
+        assertTrue(encoder.next(List.of(election("e1", candidate("c1", 5)), e2)).isEmpty());
+    }
+
+    @Test
+    void deltas_skipsResultsWithoutChanges() {
+        List<Election> first = List.of(election("e1", candidate("c1", 0)));
+        List<Election> voted = List.of(election("e1", candidate("c1", 1)));
+
+        List<ResultsUpdate> updates = ElectionResultsFeed.deltas(Multi.createFrom().items(first, first, voted), Set.of())
+                .collect().asList()
+                .await().indefinitely();
+
+        assertEquals(List.of(ResultsUpdate.snapshot(first), ResultsUpdate.deltas(List.of(new ResultsUpdate.Delta("e1", "c1", 1)))), updates);
+    }
+
+    private static Election election(String id, Election.Candidate... candidates) {
+        return new Election(id, List.of(candidates));
+    }
+
+    private static Election.Candidate candidate(String id, int votes) {
+        return new Election.Candidate(id, Optional.empty(), "Candidate " + id, id + "@example.com", Optional.empty(), Optional.empty(), votes);
+    }
+}
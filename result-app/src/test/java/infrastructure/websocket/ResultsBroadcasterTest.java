@@ -0,0 +1,110 @@
+package infrastructure.websocket;
+
+import api.dto.in.Election;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import infrastructure.rest.ElectionResultsFeed;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultsBroadcasterTest {
+
+    // Never polls within a test, the snapshots are published by the tests
+    private final ElectionResultsFeed feed = new ElectionResultsFeed(null, null, Duration.ofDays(1), false, 1);
+    private final List<Object> sent = new CopyOnWriteArrayList<>();
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    @Test
+    void join_sendsTheIndexThenTheFullFrame() {
+        ResultsBroadcaster broadcaster = broadcaster(Duration.ofSeconds(30));
+        broadcaster.publish(List.of(election(0)));
+
+        broadcaster.join(session(true));
+
+        assertEquals(2, sent.size());
+        assertInstanceOf(String.class, sent.get(0));
+        assertEquals(TallyEncoder.FULL, ((ByteBuffer) sent.get(1)).get(0));
+    }
+
+    @Test
+    void publish_sendsTheDeltaToAClientHoldingThePreviousSnapshot() {
+        ResultsBroadcaster broadcaster = broadcaster(Duration.ofSeconds(30));
+        broadcaster.publish(List.of(election(0)));
+        broadcaster.join(session(true));
+
+        broadcaster.publish(List.of(election(1)));
+
+        assertEquals(3, sent.size());
+        assertEquals(TallyEncoder.DELTA, ((ByteBuffer) sent.get(2)).get(0));
+    }
+
+    @Test
+    void join_whenASendNeverCompletes_closesTheClientWithoutAnotherSnapshot() throws InterruptedException {
+        ResultsBroadcaster broadcaster = broadcaster(Duration.ofMillis(50));
+        broadcaster.publish(List.of(election(0)));
+
+        broadcaster.join(session(false));
+
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void join_whenSendsComplete_keepsTheClientOpen() throws InterruptedException {
+        ResultsBroadcaster broadcaster = broadcaster(Duration.ofMillis(50));
+        broadcaster.publish(List.of(election(0)));
+
+        broadcaster.join(session(true));
+
+        assertFalse(closed.await(200, TimeUnit.MILLISECONDS));
+    }
+
+    private ResultsBroadcaster broadcaster(Duration maxStall) {
+        return new ResultsBroadcaster(feed, new ObjectMapper(), new SimpleMeterRegistry(), maxStall);
+    }
+
+    private static Election election(int votes) {
+        return new Election("election-1", List.of(new Election.Candidate("candidate-1", Optional.empty(),
+                "Candidate", "candidate@example.com", Optional.empty(), Optional.empty(), 0)))
+                .withVotes(Map.of("candidate-1", votes));
+    }
+
+    private Session session(boolean completes) {
+        RemoteEndpoint.Async remote = (RemoteEndpoint.Async) Proxy.newProxyInstance(
+                RemoteEndpoint.Async.class.getClassLoader(), new Class<?>[]{RemoteEndpoint.Async.class},
+                (proxy, method, args) -> {
+                    sent.add(args[0]);
+                    if (completes) {
+                        ((SendHandler) args[1]).onResult(new SendResult());
+                    }
+                    return null;
+                });
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getId" -> "session-1";
+                    case "getAsyncRemote" -> remote;
+                    case "close" -> {
+                        closed.countDown();
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,103 @@
+package infrastructure.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TallyEncoderTest {
+
+    private final TallyEncoder encoder = new TallyEncoder();
+
+    @Test
+    void writeVarint_usesSevenBitsPerByteLowestFirst() {
+        assertArrayEquals(bytes(0x00), varint(0));
+        assertArrayEquals(bytes(0x7F), varint(127));
+        assertArrayEquals(bytes(0x80, 0x01), varint(128));
+        assertArrayEquals(bytes(0xAC, 0x02), varint(300));
+        assertArrayEquals(bytes(0xFF, 0xFF, 0xFF, 0xFF, 0x07), varint(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void full_writesEveryCountInIndexOrder() {
+        TallyEncoder.Frame frame = encoder.full(2, 7, new int[][]{{1, 300}, {0}});
+
+        assertEquals(List.of((long) TallyEncoder.FULL, 2L, 7L, 1L, 300L, 0L), decode(frame.view()));
+    }
+
+    @Test
+    void delta_writesOnlyTheChangedCounts() {
+        TallyEncoder.Frame frame = encoder.delta(2, 8, new int[][]{{1, 300}, {0}}, new int[][]{{1, 301}, {5}});
+
+        assertEquals(List.of((long) TallyEncoder.DELTA, 2L, 8L, 2L, 0L, 1L, 301L, 1L, 0L, 5L), decode(frame.view()));
+    }
+
+    @Test
+    void delta_whenNothingChanged_returnsNull() {
+        assertNull(encoder.delta(2, 8, new int[][]{{1, 300}}, new int[][]{{1, 300}}));
+    }
+
+    @Test
+    void view_givesEverySendItsOwnReadPosition() {
+        TallyEncoder.Frame frame = encoder.full(1, 1, new int[][]{{1, 2}});
+
+        ByteBuffer first = frame.view();
+        first.get(new byte[first.remaining()]);
+
+        assertEquals(frame.size(), frame.view().remaining());
+    }
+
+    @Test
+    void release_recyclesTheFrameOnceTheLastReferenceIsGone() {
+        TallyEncoder.Frame frame = encoder.full(1, 1, new int[][]{{1}});
+
+        assertTrue(frame.retain());
+        frame.release();
+        frame.release();
+
+        assertFalse(frame.retain());
+    }
+
+    private static byte[] varint(long value) {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        TallyEncoder.writeVarint(buffer, value);
+        byte[] bytes = new byte[buffer.flip().remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    /**
+     * Type byte, then every varint of the frame
+     */
+    private static List<Long> decode(ByteBuffer frame) {
+        List<Long> values = new ArrayList<>();
+        values.add((long) frame.get());
+        while (frame.hasRemaining()) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = frame.get();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            values.add(value);
+        }
+        return values;
+    }
+}
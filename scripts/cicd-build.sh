@@ -2,6 +2,9 @@
 APP=$1
 ROOT=$(pwd)
 
+# Shared library every application depends on
+(cd redis-support && ./mvnw install)
+
 cd "$APP"
 
 ./mvnw clean
@@ -0,0 +1,67 @@
+#!/bin/bash
+
+# Compara um resultado JMH (JSON) com o baseline salvo
+# Mostra score, variação percentual e alocação por operação (gc.alloc.rate.norm)
+#
+# Uso: ./scripts/jmh-compare.sh <baseline.json> <resultado.json> [limite%]
+# Exemplo:
+#   cd benchmarks/voting-app && java -jar target/benchmarks.jar -prof gc -rf json -rff result.json
+#   ./scripts/jmh-compare.sh benchmarks/voting-app/baseline.json benchmarks/voting-app/result.json 10
+#
+# Retorna código 1 se algum benchmark piorou mais que o limite (padrão 10%)
+
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+RED='\033[0;31m'
+NC='\033[0m'
+
+BASELINE=$1
+CURRENT=$2
+THRESHOLD=${3:-10}
+
+if [ -z "$BASELINE" ] || [ -z "$CURRENT" ]; then
+    echo "Uso: $0 <baseline.json> <resultado.json> [limite%]"
+    exit 1
+fi
+
+if ! command -v jq &> /dev/null; then
+    echo -e "${RED}✗ jq não encontrado${NC}"
+    exit 1
+fi
+
+# Chave: benchmark + parâmetros + modo
+FLATTEN='map({key: "\(.benchmark | split(".") | .[-2:] | join(".")) \(.params // {} | to_entries | map("\(.key)=\(.value)") | join(","))" | rtrimstr(" "),
+             mode: .mode,
+             score: .primaryMetric.score,
+             unit: .primaryMetric.scoreUnit,
+             alloc: (.secondaryMetrics["gc.alloc.rate.norm"].score // null)})'
+
+regressions=0
+# Nenhum campo pode sair vazio: read com IFS de tab junta campos vazios consecutivos
+while IFS=$'\t' read -r key mode unit base current base_alloc current_alloc; do
+    if [ "$current" = "null" ]; then
+        echo -e "${YELLOW}? ${key} (${mode}) ausente no resultado${NC}"
+        continue
+    fi
+    # Em throughput maior é melhor; em tempo médio menor é melhor
+    delta=$(awk -v b="$base" -v c="$current" -v m="$mode" \
+        'BEGIN { d = (c - b) / b * 100; if (m != "thrpt") d = -d; printf "%.1f", d }')
+    color=$GREEN
+    if awk -v d="$delta" -v t="$THRESHOLD" 'BEGIN { exit !(d < -t) }'; then
+        color=$RED
+        regressions=$((regressions + 1))
+    fi
+    printf "${color}%-70s %12.3f -> %12.3f %-8s %+7s%%   alloc %s -> %s B/op${NC}\n" \
+        "$key ($mode)" "$base" "$current" "$unit" "$delta" "$base_alloc" "$current_alloc"
+done < <(jq -r -n --slurpfile b "$BASELINE" --slurpfile c "$CURRENT" "
+    (\$b[0] | $FLATTEN) as \$base |
+    (\$c[0] | $FLATTEN | map({(.key + .mode): .}) | add) as \$cur |
+    \$base[] | [.key, .mode, .unit, .score, (\$cur[.key + .mode].score // \"null\"),
+                (.alloc // 0 | round), ((\$cur[.key + .mode].alloc // 0) | round)] | @tsv")
+
+echo ""
+if [ "$regressions" -gt 0 ]; then
+    echo -e "${RED}✗ ${regressions} benchmark(s) pioraram mais de ${THRESHOLD}%${NC}"
+    exit 1
+fi
+echo -e "${GREEN}✓ Nenhuma regressão acima de ${THRESHOLD}%${NC}"
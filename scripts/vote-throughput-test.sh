@@ -0,0 +1,69 @@
+#!/bin/bash
+
+# Teste de throughput de votos (POST) com Apache Bench (ab)
+# Mede votos/s com 1, 100 e 10k votantes concorrentes
+#
+# Uso: ./scripts/vote-throughput-test.sh [concorrências...]
+# Exemplo: ./scripts/vote-throughput-test.sh 1 100 10000
+#
+# Todos os votos partem do mesmo endereço: inicie o voting-app com o limite de votos
+# por cliente elevado, senão quase todos recebem 429:
+# ./mvnw quarkus:dev -Dratelimit.voting.per-minute=1000000000
+#
+# Para comparar com/sem micro-batching, reinicie o voting-app com
+# -Dvoting.batch.enabled=false e execute novamente.
+#
+# Comparação lado a lado dos endpoints de voto (bloqueante, virtual thread e reativo):
+# ENDPOINTS="blocking virtual reactive" ./scripts/vote-throughput-test.sh 100 10000
+
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+BLUE='\033[0;34m'
+RED='\033[0;31m'
+NC='\033[0m'
+
+API_URL="http://localhost:8081"
+LEVELS=${@:-"1 100 10000"}
+ENDPOINTS=${ENDPOINTS:-"blocking"}
+
+echo "╔══════════════════════════════════════════════════════════════════════╗"
+echo "║              TESTE DE THROUGHPUT - VOTOS (POST)                      ║"
+echo "╚══════════════════════════════════════════════════════════════════════╝"
+echo ""
+
+if ! command -v ab &> /dev/null; then
+    echo -e "${RED}✗ Apache Bench (ab) não encontrado${NC}"
+    echo -e "${BLUE}Instale com: sudo apt-get install apache2-utils${NC}"
+    exit 1
+fi
+
+# Descobrir uma eleição e um candidato para votar
+election=$(curl -s "$API_URL/api/voting" | jq -r '.[0].id // empty')
+candidate=$(curl -s "$API_URL/api/voting" | jq -r '.[0].candidates[0] // empty')
+if [ -z "$election" ] || [ -z "$candidate" ]; then
+    echo -e "${RED}✗ Nenhuma eleição disponível. Crie uma com POST /api/elections no election-management${NC}"
+    exit 1
+fi
+echo -e "${GREEN}✓ Eleição: ${election} | Candidato: ${candidate}${NC}"
+echo ""
+
+# 10k conexões simultâneas exigem descritores de arquivo suficientes
+ulimit -n 65536 2> /dev/null || echo -e "${YELLOW}⚠ Não foi possível aumentar ulimit -n (use sudo para 10k concorrentes)${NC}"
+
+for endpoint in $ENDPOINTS; do
+    case "$endpoint" in
+        blocking) prefix="" ;;
+        virtual)  prefix="virtual/" ;;
+        reactive) prefix="reactive/" ;;
+        *) echo -e "${RED}✗ Endpoint desconhecido: ${endpoint}${NC}"; exit 1 ;;
+    esac
+    echo -e "${BLUE}━━━ Endpoint: ${endpoint} ━━━${NC}"
+    for concurrency in $LEVELS; do
+        requests=$(( concurrency * 10 > 2000 ? concurrency * 10 : 2000 ))
+        echo -e "${YELLOW}Concorrência ${concurrency}: ${requests} votos${NC}"
+        ab -n "$requests" -c "$concurrency" -m POST -q -r \
+            "$API_URL/api/voting/${prefix}elections/${election}/candidates/${candidate}" 2>&1 \
+            | grep -E "(Requests per second|Time per request|Failed requests|Non-2xx)"
+        echo ""
+    done
+done
@@ -2,7 +2,9 @@ package api;
 
 
 import api.dto.out.Election;
+import api.dto.out.Standing;
 import domain.ElectionService;
+import io.smallrye.mutiny.Uni;
 
 import jakarta.enterprise.context.ApplicationScoped;
 
@@ -20,7 +22,16 @@ public class ElectionApi {
         return service.findAll().stream().map(Election::fromDomain).toList();
     }
 
-    public void vote(String electionId, String candidateId) {
-        service.vote(electionId, candidateId);
+    public boolean vote(String electionId, String candidateId) {
+        return service.vote(electionId, candidateId);
+    }
+
+    public Uni<Boolean> voteReactive(String electionId, String candidateId) {
+        return service.voteReactive(electionId, candidateId);
+    }
+
+    public Uni<List<Standing>> top(String electionId, int k) {
+        return service.top(electionId, k)
+                .map(standings -> standings.stream().map(Standing::fromDomain).toList());
     }
 }
@@ -0,0 +1,7 @@
+package api.dto.out;
+
+public record Standing(String candidate, long votes) {
+    public static Standing fromDomain(domain.Standing standing) {
+        return new Standing(standing.candidate().id(), standing.votes());
+    }
+}
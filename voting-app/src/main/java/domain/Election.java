@@ -1,7 +1,63 @@
 package domain;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
-public record Election(String id, List<Candidate> candidates) {
+/**
+ * Immutable election snapshot
+ * The candidate index is derived from candidates and built once per snapshot,
+ * so validating a vote is a single hash lookup
+ */
+public final class Election {
+    private final String id;
+    private final List<Candidate> candidates;
+    private final Map<String, Candidate> candidatesById;
 
+    public Election(String id, List<Candidate> candidates) {
+        this.id = id;
+        this.candidates = List.copyOf(candidates);
+        this.candidatesById = index(this.candidates);
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public List<Candidate> candidates() {
+        return candidates;
+    }
+
+    /**
+     * Find a candidate of this election by id
+     *
+     * @return the candidate, or null if it does not run in this election
+     */
+    public Candidate candidate(String candidateId) {
+        return candidatesById.get(candidateId);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Election other && id.equals(other.id) && candidates.equals(other.candidates);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, candidates);
+    }
+
+    @Override
+    public String toString() {
+        return "Election[id=" + id + ", candidates=" + candidates + "]";
+    }
+
+    private static Map<String, Candidate> index(List<Candidate> candidates) {
+        Map<String, Candidate> index = new HashMap<>();
+        for (Candidate candidate : candidates) {
+            index.putIfAbsent(candidate.id(), candidate);
+        }
+        return Map.copyOf(index);
+    }
 }
@@ -1,5 +1,7 @@
 package domain;
 
+import io.smallrye.mutiny.Uni;
+
 import java.util.List;
 
 public interface ElectionRepository {
@@ -9,4 +11,17 @@ public interface ElectionRepository {
     List<Election> findAll();
 
     void vote(String id, Candidate candidate);
+
+    /**
+     * Non-blocking variants, safe to call from the event loop
+     */
+    Uni<Election> findByIdReactive(String id);
+
+    Uni<Void> voteReactive(String id, Candidate candidate);
+
+    /**
+     * The k most voted candidates, most voted first
+     * Fails with NoSuchElementException when the election does not exist
+     */
+    Uni<List<Standing>> topReactive(String id, int k);
 }
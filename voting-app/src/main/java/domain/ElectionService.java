@@ -1,5 +1,6 @@
 package domain;
 
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 
 import java.util.List;
@@ -16,12 +17,31 @@ public class ElectionService {
         return repository.findAll();
     }
 
-    public void vote(String electionId, String candidateId) {
-        repository.findById(electionId)
-                .candidates()
-                .stream()
-                .filter(candidate -> candidate.id().equals(candidateId))
-                .findFirst()
-                .ifPresent(candidate -> repository.vote(electionId, candidate));
+    /**
+     * @return true if the vote was counted, false if it was ignored because the candidate
+     * does not run in the election (or the election does not exist)
+     */
+    public boolean vote(String electionId, String candidateId) {
+        Candidate candidate = repository.findById(electionId).candidate(candidateId);
+        if (candidate == null) {
+            return false;
+        }
+        repository.vote(electionId, candidate);
+        return true;
+    }
+
+    public Uni<Boolean> voteReactive(String electionId, String candidateId) {
+        return repository.findByIdReactive(electionId)
+                .onItem()
+                .transformToUni(election -> {
+                    Candidate candidate = election.candidate(candidateId);
+                    return candidate == null
+                            ? Uni.createFrom().item(false)
+                            : repository.voteReactive(electionId, candidate).replaceWith(true);
+                });
+    }
+
+    public Uni<List<Standing>> top(String electionId, int k) {
+        return repository.topReactive(electionId, k);
     }
 }
@@ -0,0 +1,7 @@
+package domain;
+
+/**
+ * A candidate and its vote count, as ranked by the election's sorted set
+ */
+public record Standing(Candidate candidate, long votes) {
+}
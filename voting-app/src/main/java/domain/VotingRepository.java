@@ -7,10 +7,14 @@ public interface VotingRepository {
 
     /**
      * Save a vote to the repository
-     * 
+     * A voter has at most one vote per election
+     * Saving the same vote again (a retry) is idempotent and reports it as recorded
+     *
      * @param vote the vote to save
+     * @return true if the vote is recorded, false if the voter had already voted for another candidate
+     * @throws RuntimeException if the vote could not be stored
      */
-    void save(Vote vote);
+    boolean save(Vote vote);
 
     /**
      * Count votes for a specific candidate
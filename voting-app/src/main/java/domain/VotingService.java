@@ -192,7 +192,10 @@ public class VotingService {
     private void processVote(Vote vote) {
         // Simulate some processing time (database write, cache update, etc.)
         try {
-            repository.save(vote);
+            if (!repository.save(vote)) {
+                throw new IllegalStateException("Voter " + vote.voterId() + " already voted in election "
+                        + vote.electionId());
+            }
             // Simulate additional processing
             Thread.sleep(10);
         } catch (InterruptedException e) {
@@ -25,6 +25,8 @@ public class Subscribe {
                 .subscribe()
                 .with(id -> {
                     LOGGER.info("Election " + id + " received from subscription");
+                    // Replace the memoized entry so voters see the current candidates right away
+                    repository.invalidate(id);
                     LOGGER.info("Election " + repository.findById(id) + " starting");
                 });
     }
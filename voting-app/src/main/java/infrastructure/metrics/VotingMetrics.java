@@ -1,33 +1,71 @@
 package infrastructure.metrics;
 
+import infrastructure.ratelimit.RateLimited;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.Startup;
+import io.smallrye.faulttolerance.api.CircuitBreakerMaintenance;
+import io.smallrye.faulttolerance.api.CircuitBreakerState;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 /**
  * Metrics for voting operations using Micrometer
  * Provides custom business metrics for monitoring and observability
- * 
+ *
+ * Latency timers publish p50/p99/p999 and a percentile histogram:
+ * - vote.processing.time: vote endpoint, tagged by election and endpoint
+ * - redis.command.time: each Redis call on the vote path, tagged by command
+ *
+ * Election tags are capped at voting.metrics.max-election-tags distinct ids and only
+ * claimed by counted votes; further elections and ignored or failed votes report as "other"
+ *
  * Metrics exposed at /q/metrics (Prometheus format)
  */
+@Startup
 @ApplicationScoped
 public class VotingMetrics {
 
+    public static final String VOTE_SAVE_CIRCUIT_BREAKER = "vote-save";
+    static final String OTHER_ELECTION = "other";
+
+    private final MeterRegistry registry;
+    private final int maxElectionTags;
+
     // Counters
     private final Counter votesTotal;
     private final Counter votesSuccess;
     private final Counter votesFailed;
-    private final Counter rateLimitHits;
+    private final Counter votesIgnored;
+    private final Map<RateLimited.RateLimitType, Counter> rateLimitHits = new EnumMap<>(RateLimited.RateLimitType.class);
     private final Counter circuitBreakerTrips;
 
     // Timers
-    private final Timer voteProcessingTime;
     private final Timer batchProcessingTime;
+    private final Map<String, String> electionTags = new ConcurrentHashMap<>();
+    private final Map<VoteTimerKey, Timer> voteTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> redisTimers = new ConcurrentHashMap<>();
 
     @Inject
-    public VotingMetrics(MeterRegistry registry) {
+    public VotingMetrics(MeterRegistry registry,
+                         CircuitBreakerMaintenance circuitBreakers,
+                         @ConfigProperty(name = "voting.metrics.max-election-tags", defaultValue = "20") int maxElectionTags) {
+        this.registry = registry;
+        this.maxElectionTags = maxElectionTags;
+
         // Counters
         this.votesTotal = Counter.builder("votes.total")
                 .description("Total number of vote attempts")
@@ -44,26 +82,46 @@ public class VotingMetrics {
                 .tag("application", "voting-app")
                 .register(registry);
 
-        this.rateLimitHits = Counter.builder("ratelimit.hits")
-                .description("Number of rate limit violations")
+        this.votesIgnored = Counter.builder("votes.ignored")
+                .description("Number of votes not counted because the candidate does not run in the election")
                 .tag("application", "voting-app")
                 .register(registry);
 
+        for (RateLimited.RateLimitType type : RateLimited.RateLimitType.values()) {
+            rateLimitHits.put(type, Counter.builder("ratelimit.hits")
+                    .description("Number of rate limit violations")
+                    .tag("application", "voting-app")
+                    .tag("type", type.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+
         this.circuitBreakerTrips = Counter.builder("circuitbreaker.trips")
                 .description("Number of circuit breaker activations")
                 .tag("application", "voting-app")
+                .tag("name", VOTE_SAVE_CIRCUIT_BREAKER)
                 .register(registry);
 
         // Timers
-        this.voteProcessingTime = Timer.builder("vote.processing.time")
-                .description("Time taken to process a single vote")
-                .tag("application", "voting-app")
-                .register(registry);
-
         this.batchProcessingTime = Timer.builder("vote.batch.processing.time")
                 .description("Time taken to process a batch of votes")
                 .tag("application", "voting-app")
                 .register(registry);
+
+        // Circuit breaker state: one gauge per state, 1 for the current one
+        for (CircuitBreakerState state : CircuitBreakerState.values()) {
+            Gauge.builder("circuitbreaker.state", circuitBreakers,
+                            breakers -> breakers.currentState(VOTE_SAVE_CIRCUIT_BREAKER) == state ? 1 : 0)
+                    .description("Current state of the circuit breaker (1 = in this state)")
+                    .tag("application", "voting-app")
+                    .tag("name", VOTE_SAVE_CIRCUIT_BREAKER)
+                    .tag("state", state.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        circuitBreakers.onStateChange(VOTE_SAVE_CIRCUIT_BREAKER, state -> {
+            if (state == CircuitBreakerState.OPEN) {
+                incrementCircuitBreakerTrips();
+            }
+        });
     }
 
     // Counter methods
@@ -79,8 +137,8 @@ public class VotingMetrics {
         votesFailed.increment();
     }
 
-    public void incrementRateLimitHits() {
-        rateLimitHits.increment();
+    public void incrementRateLimitHits(RateLimited.RateLimitType type) {
+        rateLimitHits.get(type).increment();
     }
 
     public void incrementCircuitBreakerTrips() {
@@ -88,28 +146,118 @@ public class VotingMetrics {
     }
 
     // Timer methods
-    public Timer.Sample startVoteProcessing() {
+    public Timer.Sample startBatchProcessing() {
         return Timer.start();
     }
 
-    public void recordVoteProcessing(Timer.Sample sample) {
-        sample.stop(voteProcessingTime);
+    public void recordBatchProcessing(Timer.Sample sample) {
+        sample.stop(batchProcessingTime);
     }
 
-    public Timer.Sample startBatchProcessing() {
-        return Timer.start();
+    /**
+     * Time a blocking vote and count its outcome
+     * The vote returns true when it was counted, false when it was ignored
+     */
+    public void timeVote(String electionId, String endpoint, BooleanSupplier vote) {
+        Timer.Sample sample = Timer.start();
+        votesTotal.increment();
+        boolean counted = false;
+        try {
+            counted = vote.getAsBoolean();
+            (counted ? votesSuccess : votesIgnored).increment();
+        } catch (RuntimeException e) {
+            votesFailed.increment();
+            throw e;
+        } finally {
+            sample.stop(voteTimer(electionId, endpoint, counted));
+        }
     }
 
-    public void recordBatchProcessing(Timer.Sample sample) {
-        sample.stop(batchProcessingTime);
+    /**
+     * Time a non-blocking vote from subscription to termination and count its outcome
+     * The vote emits true when it was counted, false when it was ignored
+     */
+    public Uni<Boolean> timeVote(String electionId, String endpoint, Uni<Boolean> vote) {
+        return Uni.createFrom().deferred(() -> {
+            Timer.Sample sample = Timer.start();
+            votesTotal.increment();
+            return vote.onItemOrFailure().invoke((counted, failure) -> {
+                boolean success = failure == null && Boolean.TRUE.equals(counted);
+                if (failure != null) {
+                    votesFailed.increment();
+                } else {
+                    (success ? votesSuccess : votesIgnored).increment();
+                }
+                sample.stop(voteTimer(electionId, endpoint, success));
+            });
+        });
+    }
+
+    /**
+     * Time a blocking Redis call
+     */
+    public <T> T timeRedis(String command, Supplier<T> call) {
+        return redisTimer(command).record(call);
+    }
+
+    /**
+     * Time a non-blocking Redis call from subscription to termination
+     */
+    public <T> Uni<T> timeRedis(String command, Uni<T> call) {
+        return Uni.createFrom().deferred(() -> {
+            Timer.Sample sample = Timer.start();
+            return call.onTermination().invoke(() -> sample.stop(redisTimer(command)));
+        });
     }
 
-    // Convenience method for timing code blocks
-    public <T> T timeVoteProcessing(java.util.function.Supplier<T> supplier) {
-        return voteProcessingTime.record(supplier);
+    public Timer redisTimer(String command) {
+        Timer timer = redisTimers.get(command);
+        if (timer == null) {
+            timer = redisTimers.computeIfAbsent(command, c -> latencyTimer("redis.command.time")
+                    .description("Latency of Redis calls on the vote path")
+                    .tag("command", c)
+                    .register(registry));
+        }
+        return timer;
+    }
+
+    private Timer voteTimer(String electionId, String endpoint, boolean counted) {
+        VoteTimerKey key = new VoteTimerKey(electionTag(electionId, counted), endpoint);
+        Timer timer = voteTimers.get(key);
+        if (timer == null) {
+            timer = voteTimers.computeIfAbsent(key, k -> latencyTimer("vote.processing.time")
+                    .description("Time taken to process a single vote")
+                    .tag("election", k.election())
+                    .tag("endpoint", k.endpoint())
+                    .register(registry));
+        }
+        return timer;
+    }
+
+    /**
+     * Election ids come from the request path, so only the first elections a vote was counted for
+     * get their own tag. Ignored and failed votes never claim one, junk ids report as "other"
+     */
+    String electionTag(String electionId, boolean counted) {
+        String tag = electionTags.get(electionId);
+        if (tag != null) {
+            return tag;
+        }
+        if (!counted || electionTags.size() >= maxElectionTags) {
+            return OTHER_ELECTION;
+        }
+        return electionTags.computeIfAbsent(electionId, id -> id);
+    }
+
+    private static Timer.Builder latencyTimer(String name) {
+        return Timer.builder(name)
+                .tag("application", "voting-app")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.of(100, ChronoUnit.MICROS))
+                .maximumExpectedValue(Duration.ofSeconds(5));
     }
 
-    public void timeVoteProcessing(Runnable runnable) {
-        voteProcessingTime.record(runnable);
+    private record VoteTimerKey(String election, String endpoint) {
     }
 }
@@ -0,0 +1,18 @@
+package infrastructure.ratelimit;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import org.jboss.resteasy.reactive.RestResponse;
+import org.jboss.resteasy.reactive.server.ServerExceptionMapper;
+
+/**
+ * Answers a spent rate limit with 429 Too Many Requests and the seconds to wait in Retry-After
+ */
+public class RateLimitExceptionMapper {
+
+    @ServerExceptionMapper
+    public RestResponse<String> rateLimitExceeded(RateLimitInterceptor.RateLimitExceededException e) {
+        return RestResponse.ResponseBuilder.<String>create(RestResponse.StatusCode.TOO_MANY_REQUESTS, e.getMessage())
+                .header(HttpHeaders.RETRY_AFTER, Math.max(1, e.getWaitTimeSeconds()))
+                .build();
+    }
+}
@@ -1,15 +1,24 @@
 package infrastructure.ratelimit;
 
+import infrastructure.metrics.VotingMetrics;
 import io.github.bucket4j.Bucket;
-import io.github.bucket4j.ConsumptionProbe;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ArcContainer;
+import io.quarkus.vertx.http.runtime.CurrentVertxRequest;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.RoutingContext;
 import jakarta.annotation.Priority;
 import jakarta.inject.Inject;
 import jakarta.interceptor.AroundInvoke;
 import jakarta.interceptor.Interceptor;
 import jakarta.interceptor.InvocationContext;
-import jakarta.ws.rs.core.Response;
 import org.jboss.logging.Logger;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
 /**
  * Interceptor for rate limiting using Bucket4j
  * Applies rate limits based on @RateLimited annotation
@@ -24,76 +33,102 @@ public class RateLimitInterceptor {
     @Inject
     RateLimiterConfig rateLimiterConfig;
 
+    @Inject
+    CurrentVertxRequest currentRequest;
+
+    @Inject
+    VotingMetrics votingMetrics;
+
+    // Resolved once per intercepted method
+    private final Map<Method, RateLimitPlan> plans = new ConcurrentHashMap<>();
+
     @AroundInvoke
     public Object rateLimit(InvocationContext context) throws Exception {
-        // Get the rate limit annotation
-        RateLimited rateLimited = context.getMethod().getAnnotation(RateLimited.class);
-        if (rateLimited == null) {
-            rateLimited = context.getTarget().getClass().getAnnotation(RateLimited.class);
+        RateLimitPlan plan = plans.get(context.getMethod());
+        if (plan == null) {
+            plan = plans.computeIfAbsent(context.getMethod(), this::plan);
         }
 
-        if (rateLimited == null) {
+        if (plan.buckets() == null) {
             // No rate limit configured, proceed normally
             return context.proceed();
         }
 
-        // Get user/IP identifier (simplified - in production, extract from request
-        // context)
-        String identifier = getUserIdentifier(context);
-
-        // Get appropriate bucket
-        Bucket bucket = getBucket(rateLimited.value(), identifier);
+        String identifier = plan.identifier().apply(context);
+        Bucket bucket = plan.buckets().apply(identifier);
 
-        // Try to consume a token
-        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
-
-        if (probe.isConsumed()) {
+        if (bucket.tryConsume(1)) {
             // Token consumed, request allowed
-            long remainingTokens = probe.getRemainingTokens();
-            LOG.debugf("Rate limit check passed for %s. Remaining tokens: %d", identifier, remainingTokens);
             return context.proceed();
-        } else {
-            // Rate limit exceeded
-            long waitTime = probe.getNanosToWaitForRefill() / 1_000_000_000; // Convert to seconds
-            LOG.warnf("Rate limit exceeded for %s. Wait %d seconds before retry", identifier, waitTime);
-
-            // Throw rate limit exception (will be caught by exception mapper)
-            throw new RateLimitExceededException(
-                    String.format("Rate limit exceeded. Please try again in %d seconds", waitTime),
-                    waitTime);
         }
+
+        // Rate limit exceeded
+        votingMetrics.incrementRateLimitHits(plan.type());
+        long waitTime = bucket.estimateAbilityToConsume(1).getNanosToWaitForRefill() / 1_000_000_000; // Convert to seconds
+        LOG.warnf("Rate limit exceeded for %s. Wait %d seconds before retry", identifier, waitTime);
+
+        // Throw rate limit exception (will be caught by exception mapper)
+        throw new RateLimitExceededException(
+                String.format("Rate limit exceeded. Please try again in %d seconds", waitTime),
+                waitTime);
+    }
+
+    /**
+     * Resolve the @RateLimited annotation (method first, then declaring class) into a plan
+     */
+    private RateLimitPlan plan(Method method) {
+        RateLimited rateLimited = method.getAnnotation(RateLimited.class);
+        if (rateLimited == null) {
+            rateLimited = method.getDeclaringClass().getAnnotation(RateLimited.class);
+        }
+        if (rateLimited == null) {
+            LOG.debugf("No rate limit configured for %s", method);
+            return new RateLimitPlan(null, this::getUserIdentifier, null);
+        }
+        LOG.debugf("Rate limit %s applied to %s", rateLimited.value(), method);
+        return new RateLimitPlan(rateLimited.value(), this::getUserIdentifier, bucketResolver(rateLimited.value()));
     }
 
     /**
-     * Get the appropriate bucket based on rate limit type
+     * Get the bucket store matching the rate limit type
      */
-    private Bucket getBucket(RateLimited.RateLimitType type, String identifier) {
+    private Function<String, Bucket> bucketResolver(RateLimited.RateLimitType type) {
         return switch (type) {
-            case VOTING -> rateLimiterConfig.getVotingBucket(identifier);
-            case QUERY -> rateLimiterConfig.getQueryBucket(identifier);
-            case ADMIN -> rateLimiterConfig.getAdminBucket(identifier);
+            case VOTING -> rateLimiterConfig::getVotingBucket;
+            case QUERY -> rateLimiterConfig::getQueryBucket;
+            case ADMIN -> rateLimiterConfig::getAdminBucket;
         };
     }
 
     /**
-     * Get user identifier from context
-     * In production, this would extract from JWT token or session
-     * For now, using a simplified approach
+     * Get the client identity of the current HTTP request: its remote address
+     * Client headers are never trusted here, a client could change them on every request. Behind a proxy
+     * the address comes from X-Forwarded-For only when the proxy is listed in quarkus.http.proxy.trusted-proxies
+     * Falls back to the method name outside of an HTTP request
      */
     private String getUserIdentifier(InvocationContext context) {
-        // Try to get from method parameters
-        Object[] params = context.getParameters();
-        if (params != null && params.length > 0) {
-            // Look for a parameter that might be a user ID or voter ID
-            for (Object param : params) {
-                if (param instanceof String str && !str.isEmpty()) {
-                    return str;
+        ArcContainer container = Arc.container();
+        if (container != null && container.requestContext().isActive()) {
+            RoutingContext routingContext = currentRequest.getCurrent();
+            if (routingContext != null) {
+                HttpServerRequest request = routingContext.request();
+                if (request.remoteAddress() != null) {
+                    return request.remoteAddress().host();
                 }
             }
         }
 
-        // Fallback to method name + thread name (for testing)
-        return context.getMethod().getName() + "-" + Thread.currentThread().getName();
+        // Fallback to method name (non-HTTP invocations)
+        return context.getMethod().getName();
+    }
+
+    /**
+     * Per-method rate limit plan: limit type, identifier extractor and bucket store
+     * A null bucket store means the method is not rate limited
+     */
+    record RateLimitPlan(RateLimited.RateLimitType type,
+                         Function<InvocationContext, String> identifier,
+                         Function<String, Bucket> buckets) {
     }
 
     /**
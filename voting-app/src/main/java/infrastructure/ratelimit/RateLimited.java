@@ -11,8 +11,8 @@ import java.lang.annotation.Target;
  * 
  * Usage:
  * 
- * @RateLimited(type = RateLimitType.VOTING)
- *                   public void vote() { ... }
+ * @RateLimited(RateLimitType.VOTING)
+ * public void vote() { ... }
  */
 @InterceptorBinding
 @Target({ ElementType.TYPE, ElementType.METHOD })
@@ -1,40 +1,114 @@
 package infrastructure.ratelimit;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Refill;
+import io.github.bucket4j.TimeMeter;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 import java.time.Duration;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Rate Limiter Configuration using Bucket4j
  * Implements token bucket algorithm for rate limiting
- * 
- * Bucket Types:
- * 1. Voting Rate Limit: 10 votes per minute per user (anti-fraud)
+ *
+ * Bucket Types (defaults, configurable under ratelimit.*.per-minute):
+ * 1. Voting Rate Limit: 10 votes per minute per client address (anti-fraud)
  * 2. Query Rate Limit: 100 requests per minute per IP
- * 3. Admin Rate Limit: 50 requests per minute per user
+ * 3. Admin Rate Limit: 50 requests per minute per client address
+ *
+ * Buckets live in size-bounded Caffeine stores keyed by a 64-bit hash of the identifier
+ * and expire after being idle, so memory stays constant under an adversarial key spray
+ *
+ * Stores and buckets read time from a shared millisecond clock (ratelimit.clock.sampled, on by default)
+ * and the stores run their maintenance on the calling thread, which keeps a bucket lookup off the system clock.
+ * RateLimitInterceptorBenchmark measures both clocks
  */
 @ApplicationScoped
 public class RateLimiterConfig {
 
     private static final Logger LOG = Logger.getLogger(RateLimiterConfig.class);
 
+    // Rough retained size of one entry: bucket state, Caffeine node and boxed key
+    static final long ESTIMATED_BYTES_PER_BUCKET = 256;
+
+    // Limits are immutable and shared by every bucket of the same type
+    private final Bandwidth votingLimit;
+    private final Bandwidth queryLimit;
+    private final Bandwidth adminLimit;
+
+    // Null when the stores and buckets read the system clock
+    private final RateLimitClock clock;
+    private final Ticker ticker;
+    private final TimeMeter timeMeter;
+
     // Store buckets per user/IP
-    private final Map<String, Bucket> votingBuckets = new ConcurrentHashMap<>();
-    private final Map<String, Bucket> queryBuckets = new ConcurrentHashMap<>();
-    private final Map<String, Bucket> adminBuckets = new ConcurrentHashMap<>();
+    private final Cache<Long, Bucket> votingBuckets;
+    private final Cache<Long, Bucket> queryBuckets;
+    private final Cache<Long, Bucket> adminBuckets;
+
+    public RateLimiterConfig(MeterRegistry registry,
+                             @ConfigProperty(name = "ratelimit.buckets.max-size", defaultValue = "100000") long maxSize,
+                             @ConfigProperty(name = "ratelimit.buckets.idle-expiry", defaultValue = "2M") Duration idleExpiry,
+                             @ConfigProperty(name = "ratelimit.voting.per-minute", defaultValue = "10") long votingPerMinute,
+                             @ConfigProperty(name = "ratelimit.query.per-minute", defaultValue = "100") long queryPerMinute,
+                             @ConfigProperty(name = "ratelimit.admin.per-minute", defaultValue = "50") long adminPerMinute,
+                             @ConfigProperty(name = "ratelimit.clock.sampled", defaultValue = "true") boolean sampledClock) {
+        this.clock = sampledClock ? new RateLimitClock() : null;
+        this.ticker = sampledClock ? clock : Ticker.systemTicker();
+        this.timeMeter = sampledClock ? clock : TimeMeter.SYSTEM_MILLISECONDS;
+        this.votingLimit = perMinute(votingPerMinute);
+        this.queryLimit = perMinute(queryPerMinute);
+        this.adminLimit = perMinute(adminPerMinute);
+        this.votingBuckets = newStore(maxSize, idleExpiry);
+        this.queryBuckets = newStore(maxSize, idleExpiry);
+        this.adminBuckets = newStore(maxSize, idleExpiry);
+
+        Gauge.builder("ratelimit.buckets.live", this, RateLimiterConfig::liveBuckets)
+                .description("Number of rate limit buckets currently held in memory")
+                .tag("application", "voting-app")
+                .register(registry);
+        Gauge.builder("ratelimit.buckets.memory", this, config -> config.liveBuckets() * ESTIMATED_BYTES_PER_BUCKET)
+                .description("Estimated memory retained by rate limit buckets")
+                .tag("application", "voting-app")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private static Bandwidth perMinute(long tokens) {
+        return Bandwidth.builder()
+                .capacity(tokens)
+                .refillIntervally(tokens, Duration.ofMinutes(1))
+                .build();
+    }
+
+    /**
+     * An idle bucket has refilled completely once the refill period elapsed,
+     * so expiring it after that is indistinguishable from keeping it
+     */
+    private Cache<Long, Bucket> newStore(long maxSize, Duration idleExpiry) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(idleExpiry)
+                .ticker(ticker)
+                .executor(Runnable::run)
+                .build();
+    }
 
     /**
      * Get or create voting bucket for a user
      * Rate: 10 votes per minute (anti-fraud protection)
      */
     public Bucket getVotingBucket(String userId) {
-        return votingBuckets.computeIfAbsent(userId, k -> createVotingBucket());
+        return votingBuckets.get(hash(userId), k -> createVotingBucket());
     }
 
     /**
@@ -42,7 +116,7 @@ public class RateLimiterConfig {
      * Rate: 100 requests per minute (DDoS protection)
      */
     public Bucket getQueryBucket(String ipAddress) {
-        return queryBuckets.computeIfAbsent(ipAddress, k -> createQueryBucket());
+        return queryBuckets.get(hash(ipAddress), k -> createQueryBucket());
     }
 
     /**
@@ -50,7 +124,19 @@ public class RateLimiterConfig {
      * Rate: 50 requests per minute (admin operations)
      */
     public Bucket getAdminBucket(String userId) {
-        return adminBuckets.computeIfAbsent(userId, k -> createAdminBucket());
+        return adminBuckets.get(hash(userId), k -> createAdminBucket());
+    }
+
+    /**
+     * Compact 64-bit key (FNV-1a) so the stores do not retain the identifier strings
+     */
+    static long hash(String identifier) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < identifier.length(); i++) {
+            hash ^= identifier.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
     }
 
     /**
@@ -58,14 +144,11 @@ public class RateLimiterConfig {
      * Refills at rate of 1 token every 6 seconds
      */
     private Bucket createVotingBucket() {
-        Bandwidth limit = Bandwidth.builder()
-                .capacity(10)
-                .refillIntervally(10, Duration.ofMinutes(1))
-                .build();
         Bucket bucket = Bucket.builder()
-                .addLimit(limit)
+                .addLimit(votingLimit)
+                .withCustomTimePrecision(timeMeter)
                 .build();
-        LOG.debug("Created voting rate limit bucket: 10 votes/minute");
+        LOG.debug("Created voting rate limit bucket");
         return bucket;
     }
 
@@ -74,14 +157,11 @@ public class RateLimiterConfig {
      * Refills at rate of 100 tokens every 60 seconds
      */
     private Bucket createQueryBucket() {
-        Bandwidth limit = Bandwidth.builder()
-                .capacity(100)
-                .refillIntervally(100, Duration.ofMinutes(1))
-                .build();
         Bucket bucket = Bucket.builder()
-                .addLimit(limit)
+                .addLimit(queryLimit)
+                .withCustomTimePrecision(timeMeter)
                 .build();
-        LOG.debug("Created query rate limit bucket: 100 req/minute");
+        LOG.debug("Created query rate limit bucket");
         return bucket;
     }
 
@@ -90,14 +170,11 @@ public class RateLimiterConfig {
      * Refills at rate of 50 tokens every 60 seconds
      */
     private Bucket createAdminBucket() {
-        Bandwidth limit = Bandwidth.builder()
-                .capacity(50)
-                .refillIntervally(50, Duration.ofMinutes(1))
-                .build();
         Bucket bucket = Bucket.builder()
-                .addLimit(limit)
+                .addLimit(adminLimit)
+                .withCustomTimePrecision(timeMeter)
                 .build();
-        LOG.debug("Created admin rate limit bucket: 50 req/minute");
+        LOG.debug("Created admin rate limit bucket");
         return bucket;
     }
 
@@ -105,20 +182,31 @@ public class RateLimiterConfig {
      * Clear all buckets (for testing or reset)
      */
     public void clearAll() {
-        votingBuckets.clear();
-        queryBuckets.clear();
-        adminBuckets.clear();
+        votingBuckets.invalidateAll();
+        queryBuckets.invalidateAll();
+        adminBuckets.invalidateAll();
         LOG.info("All rate limit buckets cleared");
     }
 
+    @PreDestroy
+    void shutdown() {
+        if (clock != null) {
+            clock.stop();
+        }
+    }
+
+    public long liveBuckets() {
+        return votingBuckets.estimatedSize() + queryBuckets.estimatedSize() + adminBuckets.estimatedSize();
+    }
+
     /**
      * Get statistics
      */
     public Map<String, Object> getStats() {
         return Map.of(
-                "votingBuckets", votingBuckets.size(),
-                "queryBuckets", queryBuckets.size(),
-                "adminBuckets", adminBuckets.size(),
-                "totalBuckets", votingBuckets.size() + queryBuckets.size() + adminBuckets.size());
+                "votingBuckets", votingBuckets.estimatedSize(),
+                "queryBuckets", queryBuckets.estimatedSize(),
+                "adminBuckets", adminBuckets.estimatedSize(),
+                "totalBuckets", liveBuckets());
     }
 }
@@ -3,37 +3,158 @@ package infrastructure.repositories;
 import domain.Candidate;
 import domain.Election;
 import domain.ElectionRepository;
+import domain.Standing;
+import infrastructure.metrics.VotingMetrics;
+import infrastructure.redis.ScoredMembers;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheInvalidate;
+import io.quarkus.cache.CacheName;
 import io.quarkus.cache.CacheResult;
+import io.quarkus.cache.CaffeineCache;
 import io.quarkus.redis.datasource.RedisDataSource;
 import io.quarkus.redis.datasource.keys.KeyCommands;
+import io.quarkus.redis.datasource.keys.KeyScanArgs;
+import io.quarkus.redis.datasource.keys.RedisValueType;
+import io.quarkus.redis.datasource.set.SetCommands;
+import io.quarkus.redis.datasource.sortedset.ReactiveSortedSetCommands;
 import io.quarkus.redis.datasource.sortedset.SortedSetCommands;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.redis.client.Command;
+import io.vertx.mutiny.redis.client.Redis;
+import io.vertx.mutiny.redis.client.Request;
+import io.vertx.mutiny.redis.client.Response;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @ApplicationScoped
 public class RedisElectionRepository implements ElectionRepository {
 	private static final Logger LOGGER = Logger.getLogger(RedisElectionRepository.class);
-	private static final String KEY = "election:";
+	static final String KEY = "election:";
+	// Set of election ids maintained by election-management on submit
+	private static final String REGISTRY_KEY = "elections";
+	// Elections that received votes since election-management's last sync, drained by its Sync job
+	static final String DIRTY_KEY = "elections:dirty";
+	// Pub/sub channel telling result-app which elections just received votes
+	static final String VOTES_CHANNEL = "elections:votes";
 	private final SortedSetCommands<String, String> sortedSetCommands;
+	private final ReactiveSortedSetCommands<String, String> reactiveSortedSetCommands;
 	private final KeyCommands<String> keyCommands;
+	private final SetCommands<String, String> setCommands;
+	private final Redis redis;
+	private final Cache memoization;
+	private final RedisVoteBatcher voteBatcher;
+	private final RedisVoteTally voteTally;
+	private final VotingMetrics metrics;
+	private final boolean batchEnabled;
+	private final boolean coalescingEnabled;
+	// Set once elections submitted before the registry existed were added to it
+	private volatile boolean registryBackfilled;
 
-	public RedisElectionRepository(RedisDataSource dataSource) {
+	public RedisElectionRepository(RedisDataSource dataSource,
+								   @CacheName("memoization") Cache memoization,
+								   RedisVoteBatcher voteBatcher,
+								   RedisVoteTally voteTally,
+								   VotingMetrics metrics,
+								   @ConfigProperty(name = "voting.batch.enabled", defaultValue = "true") boolean batchEnabled,
+								   @ConfigProperty(name = "voting.coalescing.enabled", defaultValue = "false") boolean coalescingEnabled) {
 		sortedSetCommands = dataSource.sortedSet(String.class, String.class);
+		reactiveSortedSetCommands = dataSource.getReactive().sortedSet(String.class, String.class);
 		keyCommands = dataSource.key(String.class);
+		setCommands = dataSource.set(String.class);
+		redis = dataSource.getReactive().getRedis();
+		this.memoization = memoization;
+		this.voteBatcher = voteBatcher;
+		this.voteTally = voteTally;
+		this.metrics = metrics;
+		this.batchEnabled = batchEnabled;
+		this.coalescingEnabled = coalescingEnabled;
 	}
 
+	/**
+	 * Reads the election registry and fetches every election's candidates in one pipelined exchange
+	 * The first call adds the elections submitted before the registry existed to it, found with a non-blocking SCAN
+	 * The loaded elections also refresh the memoization cache
+	 */
 	@Override
 	public List<Election> findAll() {
 		LOGGER.info("Retrieving elections from redis");
-		return keyCommands.keys(KEY + "*").stream().map(id -> findById(id.replace(KEY, ""))).toList();
+		if (!registryBackfilled) {
+			backfillRegistry();
+		}
+		List<String> ids = new ArrayList<>(metrics.timeRedis("smembers", () -> setCommands.smembers(REGISTRY_KEY)));
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+
+		List<Request> requests = new ArrayList<>(ids.size());
+		for (String id : ids) {
+			requests.add(Request.cmd(Command.ZRANGE).arg(KEY + id).arg(0).arg(-1));
+		}
+		List<Response> responses = metrics.timeRedis("zrange_batch", () -> redis.batchAndAwait(requests));
+
+		List<Election> elections = new ArrayList<>(ids.size());
+		for (int i = 0; i < ids.size(); i++) {
+			List<Candidate> candidates = new ArrayList<>(responses.get(i).size());
+			for (Response member : responses.get(i)) {
+				candidates.add(new Candidate(member.toString()));
+			}
+			Election election = new Election(ids.get(i), candidates);
+			memoization.as(CaffeineCache.class).put(election.id(), CompletableFuture.completedFuture(election));
+			elections.add(election);
+		}
+		return elections;
+	}
+
+	/**
+	 * SADD every election found in the keyspace to the registry, once per instance
+	 * Concurrent or repeated backfills are harmless, SADD is idempotent
+	 */
+	private void backfillRegistry() {
+		List<String> ids = scanElectionIds();
+		if (!ids.isEmpty()) {
+			metrics.timeRedis("sadd", () -> setCommands.sadd(REGISTRY_KEY, ids.toArray(String[]::new)));
+		}
+		registryBackfilled = true;
+		LOGGER.infof("Election registry %s backfilled with %d elections found by SCAN", REGISTRY_KEY, ids.size());
+	}
+
+	private List<String> scanElectionIds() {
+		List<String> ids = new ArrayList<>();
+		// Only sorted sets: counters such as election:votes:{id} share the prefix
+		KeyScanArgs args = new KeyScanArgs().match(KEY + "*").type(RedisValueType.ZSET).count(1000);
+		for (String key : keyCommands.scan(args).toIterable()) {
+			ids.add(key.substring(KEY.length()));
+		}
+		return ids;
 	}
 
 	@Override
 	public void vote(String id, Candidate candidate) {
-		LOGGER.info("Voting for " + candidate.id());
-		sortedSetCommands.zincrby(KEY + id, 1, candidate.id());
+		LOGGER.debug("Voting for " + candidate.id());
+		if (coalescingEnabled) {
+			// Counted in memory only, flushed to Redis by the tally's background flusher
+			voteTally.increment(KEY + id, candidate.id());
+			return;
+		}
+		if (!batchEnabled) {
+			metrics.timeRedis("zincrby", () -> redis.batchAndAwait(increment(id, candidate)));
+			return;
+		}
+		try {
+			// Blocks until the pipelined batch holding this vote is acknowledged by Redis
+			voteBatcher.submit(KEY + id, candidate.id()).join();
+		} catch (CompletionException e) {
+			throw new RuntimeException("Failed to write vote for " + candidate.id(), e.getCause());
+		}
 	}
 
 	@Override
@@ -41,13 +162,98 @@ public class RedisElectionRepository implements ElectionRepository {
 	public Election findById(String id) {
 		LOGGER.info("Retrieving election " + id + " from redis");
 
-		return new Election(id, sortedSetCommands.zrange(KEY + id, 0, -1)
+		return new Election(id, metrics.timeRedis("zrange", () -> sortedSetCommands.zrange(KEY + id, 0, -1))
 				.stream()
 				.map(Candidate::new)
 				.toList());
 	}
 
+	@Override
+	public Uni<Void> voteReactive(String id, Candidate candidate) {
+		LOGGER.debug("Voting for " + candidate.id());
+		if (coalescingEnabled) {
+			voteTally.increment(KEY + id, candidate.id());
+			return Uni.createFrom().voidItem();
+		}
+		if (!batchEnabled) {
+			return metrics.timeRedis("zincrby", redis.batch(increment(id, candidate))).replaceWithVoid();
+		}
+		return Uni.createFrom().completionStage(() -> voteBatcher.submit(KEY + id, candidate.id()));
+	}
+
+	/**
+	 * One vote, its dirty mark and its change event, pipelined in that order so neither Sync
+	 * nor result-app see the mark or the event before the count
+	 */
+	private static List<Request> increment(String id, Candidate candidate) {
+		List<String> keys = List.of(KEY + id);
+		return List.of(Request.cmd(Command.ZINCRBY).arg(KEY + id).arg(1).arg(candidate.id()),
+				markDirty(keys),
+				publishVotes(keys));
+	}
 
-}
-		
+	/**
+	 * SADD of the elections behind the given sorted set keys to the dirty set
+	 */
+	static Request markDirty(Collection<String> keys) {
+		Request request = Request.cmd(Command.SADD).arg(DIRTY_KEY);
+		for (String key : keys) {
+			request.arg(key.substring(KEY.length()));
+		}
+		return request;
+	}
+
+	/**
+	 * PUBLISH of the comma separated elections behind the given sorted set keys
+	 */
+	static Request publishVotes(Collection<String> keys) {
+		StringJoiner ids = new StringJoiner(",");
+		for (String key : keys) {
+			ids.add(key.substring(KEY.length()));
+		}
+		return Request.cmd(Command.PUBLISH).arg(VOTES_CHANNEL).arg(ids.toString());
+	}
 
+	/**
+	 * Shares the memoization cache with findById, the cached value is the resolved election
+	 */
+	@Override
+	@CacheResult(cacheName = "memoization")
+	public Uni<Election> findByIdReactive(String id) {
+		LOGGER.info("Retrieving election " + id + " from redis");
+
+		return metrics.timeRedis("zrange", reactiveSortedSetCommands.zrange(KEY + id, 0, -1))
+				.map(members -> new Election(id, members.stream().map(Candidate::new).toList()));
+	}
+
+	/**
+	 * ZREVRANGE WITHSCORES of the election's sorted set, cached per election and k for the short
+	 * "leaderboard" TTL. Concurrent misses on the same key share one Redis call.
+	 * Every election's sorted set holds its candidates from submission on, so an empty reply means an
+	 * unknown election: it fails instead, and failures are not cached
+	 */
+	@Override
+	@CacheResult(cacheName = "leaderboard")
+	public Uni<List<Standing>> topReactive(String id, int k) {
+		Request request = Request.cmd(Command.ZREVRANGE).arg(KEY + id).arg(0).arg(k - 1).arg("WITHSCORES");
+		return metrics.timeRedis("zrevrange", redis.send(request))
+				.map(RedisElectionRepository::standings)
+				.onItem().transformToUni(standings -> standings.isEmpty()
+						? Uni.createFrom().failure(new NoSuchElementException("Election " + id + " not found"))
+						: Uni.createFrom().item(standings));
+	}
+
+	static List<Standing> standings(Response response) {
+		List<Standing> standings = new ArrayList<>();
+		ScoredMembers.forEach(response, (candidate, votes) -> standings.add(new Standing(new Candidate(candidate), (long) votes)));
+		return standings;
+	}
+
+	/**
+	 * Drop the memoized election so the next findById reloads it from redis
+	 */
+	@CacheInvalidate(cacheName = "memoization")
+	public void invalidate(String id) {
+		LOGGER.info("Invalidating memoized election " + id);
+	}
+}
@@ -0,0 +1,165 @@
+package infrastructure.repositories;
+
+import infrastructure.metrics.VotingMetrics;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.vertx.mutiny.redis.client.Command;
+import io.vertx.mutiny.redis.client.Redis;
+import io.vertx.mutiny.redis.client.Request;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Micro-batching pipeline for vote writes
+ * Collects the votes arriving within a short window (or up to a maximum batch size),
+ * merges duplicates into a single ZINCRBY per (election, candidate) and sends the
+ * whole batch to Redis as one pipelined exchange, followed by one SADD marking the elections dirty
+ *
+ * Callers receive a future that completes only after Redis acknowledged their batch,
+ * or fails once the batch went unacknowledged for voting.batch.ack-timeout
+ * The deadline is one timer per batch, never one per vote
+ */
+@ApplicationScoped
+public class RedisVoteBatcher {
+
+    private static final Logger LOG = Logger.getLogger(RedisVoteBatcher.class);
+
+    private final Redis redis;
+    private final VotingMetrics metrics;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final Duration ackTimeout;
+    private final BlockingQueue<PendingVote> queue = new LinkedBlockingQueue<>();
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public RedisVoteBatcher(RedisDataSource dataSource,
+                            VotingMetrics metrics,
+                            @ConfigProperty(name = "voting.batch.window", defaultValue = "2ms") Duration window,
+                            @ConfigProperty(name = "voting.batch.max-size", defaultValue = "512") int maxBatchSize,
+                            @ConfigProperty(name = "voting.batch.ack-timeout", defaultValue = "5s") Duration ackTimeout) {
+        this.redis = dataSource.getReactive().getRedis();
+        this.metrics = metrics;
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = window.toNanos();
+        this.ackTimeout = ackTimeout;
+        this.flusher = Thread.ofPlatform().daemon().name("vote-batcher").start(this::run);
+    }
+
+    /**
+     * Queue a ZINCRBY of one vote for the candidate on the given sorted set
+     * The returned future completes once the batch holding this vote was acknowledged
+     */
+    public CompletableFuture<Void> submit(String key, String candidateId) {
+        PendingVote vote = new PendingVote(key, candidateId, new CompletableFuture<>());
+        if (!running) {
+            vote.ack().completeExceptionally(new IllegalStateException("Vote batcher is shut down"));
+            return vote.ack();
+        }
+        queue.add(vote);
+        // The flusher may have exited between the check and the add: nobody would ever take this vote
+        if (!running && queue.remove(vote)) {
+            vote.ack().completeExceptionally(new IllegalStateException("Vote batcher is shut down"));
+        }
+        return vote.ack();
+    }
+
+    private void run() {
+        List<PendingVote> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingVote first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                batch.forEach(vote -> vote.ack().completeExceptionally(e));
+                break;
+            } catch (Exception e) {
+                LOG.errorf(e, "Failed to flush vote batch of %d votes", batch.size());
+                batch.forEach(vote -> vote.ack().completeExceptionally(e));
+            }
+            batch = new ArrayList<>(maxBatchSize);
+        }
+        queue.forEach(vote -> vote.ack().completeExceptionally(new IllegalStateException("Vote batcher is shut down")));
+    }
+
+    /**
+     * Keep collecting votes until the window elapses or the batch is full
+     */
+    private void collect(List<PendingVote> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatchSize) {
+            if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingVote next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Merge duplicates and send one pipelined request per (election, candidate)
+     * Acknowledgement happens asynchronously so the next batch can be collected meanwhile
+     */
+    private void flush(List<PendingVote> batch) {
+        Map<String, Map<String, Integer>> increments = new HashMap<>();
+        for (PendingVote vote : batch) {
+            increments.computeIfAbsent(vote.key(), k -> new HashMap<>())
+                    .merge(vote.candidateId(), 1, Integer::sum);
+        }
+
+        List<Request> requests = new ArrayList<>();
+        increments.forEach((key, candidates) -> candidates.forEach((candidateId, count) ->
+                requests.add(Request.cmd(Command.ZINCRBY).arg(key).arg(count).arg(candidateId))));
+        requests.add(RedisElectionRepository.markDirty(increments.keySet()));
+        requests.add(RedisElectionRepository.publishVotes(increments.keySet()));
+
+        LOG.debugf("Flushing %d votes as %d pipelined ZINCRBY", batch.size(), requests.size());
+        Timer.Sample sample = metrics.startBatchProcessing();
+        metrics.timeRedis("zincrby_batch", redis.batch(requests))
+                .ifNoItem().after(ackTimeout).failWith(() -> new TimeoutException(
+                        "Vote batch not acknowledged within " + ackTimeout))
+                .onTermination().invoke(() -> metrics.recordBatchProcessing(sample))
+                .subscribe()
+                .with(responses -> batch.forEach(vote -> vote.ack().complete(null)),
+                        failure -> {
+                            LOG.errorf(failure, "Failed to write vote batch of %d votes", batch.size());
+                            batch.forEach(vote -> vote.ack().completeExceptionally(failure));
+                        });
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        flusher.join(Duration.ofSeconds(5));
+    }
+
+    private record PendingVote(String key, String candidateId, CompletableFuture<Void> ack) {
+    }
+}
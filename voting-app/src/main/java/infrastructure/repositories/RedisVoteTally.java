@@ -0,0 +1,243 @@
+package infrastructure.repositories;
+
+import infrastructure.metrics.VotingMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.vertx.mutiny.redis.client.Command;
+import io.vertx.mutiny.redis.client.Redis;
+import io.vertx.mutiny.redis.client.RedisConnection;
+import io.vertx.mutiny.redis.client.Request;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-coalescing vote tally for very hot elections
+ * Votes only increment a striped in-memory counter per (election, candidate); a background
+ * flusher drains the deltas to Redis at a fixed interval as one ZINCRBY per candidate,
+ * plus one SADD marking the elections dirty
+ *
+ * A crash loses at most the votes of one flush interval, plus up to voting.coalescing.max-retained-votes
+ * kept in memory while Redis is unreachable
+ *
+ * A flush that could not get a connection (connection refused, pool exhausted) wrote nothing and is retried
+ * on the next run, up to that cap. A flush that failed once written to a connection (timeout, connection lost)
+ * may have been applied, so it is dropped rather than risk counting its votes twice
+ *
+ * Counters of an election are removed once a flush finds no votes for it, so the map only holds elections
+ * voted on recently
+ *
+ * Metrics:
+ * - votes.coalescing.pending: votes counted in memory and not yet flushed
+ * - votes.coalescing.flush.lag: seconds since the last successful flush
+ * - votes.coalescing.dropped: votes given up after a failed flush, tagged by reason
+ */
+@ApplicationScoped
+public class RedisVoteTally {
+
+    private static final Logger LOG = Logger.getLogger(RedisVoteTally.class);
+
+    private final Map<String, Map<String, LongAdder>> counters = new ConcurrentHashMap<>();
+    // Elections removed from the counters by the last flush, drained once more by the next one; replaced, never mutated
+    private volatile Map<String, Map<String, LongAdder>> retired = Map.of();
+    private final Redis redis;
+    private final VotingMetrics metrics;
+    private final ScheduledExecutorService flusher;
+    private final long maxRetainedVotes;
+    private final Counter droppedOverflow;
+    private final Counter droppedUnknownOutcome;
+    private volatile long lastFlushNanos = System.nanoTime();
+
+    public RedisVoteTally(RedisDataSource dataSource,
+                          MeterRegistry registry,
+                          VotingMetrics metrics,
+                          @ConfigProperty(name = "voting.coalescing.flush-interval", defaultValue = "250ms") Duration flushInterval,
+                          @ConfigProperty(name = "voting.coalescing.max-retained-votes", defaultValue = "100000") long maxRetainedVotes) {
+        this.redis = dataSource.getReactive().getRedis();
+        this.metrics = metrics;
+        this.maxRetainedVotes = maxRetainedVotes;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(
+                runnable -> Thread.ofPlatform().daemon().name("vote-tally-flusher").unstarted(runnable));
+        this.flusher.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+
+        Gauge.builder("votes.coalescing.pending", this, RedisVoteTally::pendingVotes)
+                .description("Votes counted in memory and not yet flushed to Redis")
+                .tag("application", "voting-app")
+                .register(registry);
+        Gauge.builder("votes.coalescing.flush.lag", this, RedisVoteTally::flushLagSeconds)
+                .description("Seconds since the last successful flush to Redis")
+                .tag("application", "voting-app")
+                .baseUnit("seconds")
+                .register(registry);
+        this.droppedOverflow = droppedCounter(registry, "overflow");
+        this.droppedUnknownOutcome = droppedCounter(registry, "unknown_outcome");
+    }
+
+    /**
+     * Count one vote in memory, lock-free
+     */
+    public void increment(String key, String candidateId) {
+        counter(key, candidateId).increment();
+    }
+
+    private LongAdder counter(String key, String candidateId) {
+        Map<String, LongAdder> candidates = counters.get(key);
+        if (candidates == null) {
+            candidates = counters.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+        }
+        LongAdder adder = candidates.get(candidateId);
+        if (adder == null) {
+            adder = candidates.computeIfAbsent(candidateId, c -> new LongAdder());
+        }
+        return adder;
+    }
+
+    public long pendingVotes() {
+        long pending = 0;
+        for (Map<String, LongAdder> candidates : counters.values()) {
+            for (LongAdder adder : candidates.values()) {
+                pending += adder.sum();
+            }
+        }
+        for (Map<String, LongAdder> candidates : retired.values()) {
+            for (LongAdder adder : candidates.values()) {
+                pending += adder.sum();
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Elections holding counters, including the ones retired and not yet drained
+     */
+    int trackedElections() {
+        return counters.size() + retired.size();
+    }
+
+    public double flushLagSeconds() {
+        return (System.nanoTime() - lastFlushNanos) / 1_000_000_000.0;
+    }
+
+    /**
+     * Drain every non-zero delta and send them to Redis in one pipelined exchange
+     * Deltas of a flush that never reached Redis are added back, up to maxRetainedVotes, and retried on the next run
+     *
+     * An election without votes since the previous run is removed from the counters and drained once more by the
+     * next run, which catches the votes of callers that fetched its counters just before the removal
+     */
+    void flush() {
+        List<Request> requests = new ArrayList<>();
+        List<Delta> deltas = new ArrayList<>();
+        Set<String> keys = new HashSet<>();
+
+        Map<String, Map<String, LongAdder>> retiring = new HashMap<>();
+        retired.forEach((key, candidates) -> drain(key, candidates, deltas));
+        counters.forEach((key, candidates) -> {
+            if (!drain(key, candidates, deltas) && counters.remove(key, candidates)) {
+                retiring.put(key, candidates);
+            }
+        });
+        retired = retiring;
+
+        for (Delta delta : deltas) {
+            requests.add(Request.cmd(Command.ZINCRBY).arg(delta.key()).arg(delta.votes()).arg(delta.candidateId()));
+            keys.add(delta.key());
+        }
+        if (requests.isEmpty()) {
+            lastFlushNanos = System.nanoTime();
+            return;
+        }
+        requests.add(RedisElectionRepository.markDirty(keys));
+        requests.add(RedisElectionRepository.publishVotes(keys));
+        long votes = deltas.stream().mapToLong(Delta::votes).sum();
+
+        RedisConnection connection;
+        try {
+            connection = metrics.timeRedis("connect", () -> redis.connectAndAwait());
+        } catch (Exception e) {
+            // Nothing was written: the votes can be retried without counting them twice
+            retain(deltas, votes, e);
+            return;
+        }
+        try {
+            metrics.timeRedis("zincrby_flush", () -> connection.batchAndAwait(requests));
+            lastFlushNanos = System.nanoTime();
+            LOG.debugf("Flushed %d coalesced vote deltas to Redis", deltas.size());
+        } catch (Exception e) {
+            LOG.errorf(e, "Flush of %d coalesced votes failed after it was sent, dropping them rather than risk counting them twice", votes);
+            droppedUnknownOutcome.increment(votes);
+        } finally {
+            connection.closeAndForget();
+        }
+    }
+
+    /**
+     * Reset the counters of one election, collecting its non-zero deltas
+     * Returns whether the election had any
+     */
+    private static boolean drain(String key, Map<String, LongAdder> candidates, List<Delta> deltas) {
+        boolean voted = false;
+        for (Map.Entry<String, LongAdder> entry : candidates.entrySet()) {
+            long votes = entry.getValue().sumThenReset();
+            if (votes != 0) {
+                deltas.add(new Delta(key, entry.getKey(), votes));
+                voted = true;
+            }
+        }
+        return voted;
+    }
+
+    /**
+     * Add the deltas of a flush that never reached Redis back to the counters, up to maxRetainedVotes
+     */
+    private void retain(List<Delta> deltas, long votes, Exception failure) {
+        long budget = maxRetainedVotes;
+        for (Delta delta : deltas) {
+            long kept = Math.min(delta.votes(), budget);
+            if (kept > 0) {
+                counter(delta.key(), delta.candidateId()).add(kept);
+                budget -= kept;
+            }
+        }
+        long dropped = votes - (maxRetainedVotes - budget);
+        if (dropped > 0) {
+            droppedOverflow.increment(dropped);
+        }
+        LOG.errorf(failure, "Failed to reach Redis to flush %d coalesced votes, retrying %d on next run", votes, votes - dropped);
+    }
+
+    private static Counter droppedCounter(MeterRegistry registry, String reason) {
+        return Counter.builder("votes.coalescing.dropped")
+                .description("Coalesced votes given up after a failed flush to Redis")
+                .tag("application", "voting-app")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    private record Delta(String key, String candidateId, long votes) {
+    }
+}
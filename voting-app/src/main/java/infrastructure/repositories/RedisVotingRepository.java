@@ -2,10 +2,15 @@ package infrastructure.repositories;
 
 import domain.Vote;
 import domain.VotingRepository;
+import infrastructure.metrics.VotingMetrics;
 import io.quarkus.redis.datasource.RedisDataSource;
 import io.quarkus.redis.datasource.value.ValueCommands;
+import io.smallrye.faulttolerance.api.CircuitBreakerName;
+import io.vertx.mutiny.redis.client.Command;
+import io.vertx.mutiny.redis.client.Response;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.faulttolerance.*;
 import org.jboss.logging.Logger;
 
@@ -23,10 +28,38 @@ public class RedisVotingRepository implements VotingRepository {
     private static final String CANDIDATE_VOTES_PREFIX = "candidate:votes:";
     private static final String ELECTION_VOTES_PREFIX = "election:votes:";
 
+    /**
+     * Records the voter with SET NX and, only when the vote is new, increments both
+     * counters. Runs atomically on the server in one round trip.
+     * KEYS: vote key, candidate counter, election counter - ARGV: candidate id
+     * Returns 1 for a new vote, 2 when the voter already voted for this same candidate
+     * (a retry of a vote already counted), 0 when the voter already voted for another candidate
+     */
+    static final String SAVE_VOTE_SCRIPT = """
+            if redis.call('SET', KEYS[1], ARGV[1], 'NX') then
+              redis.call('INCR', KEYS[2])
+              redis.call('INCR', KEYS[3])
+              return 1
+            end
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return 2
+            end
+            return 0
+            """;
+    static final long VOTE_CREATED = 1L;
+    static final long VOTE_ALREADY_RECORDED = 2L;
+
     @Inject
     RedisDataSource redisDataSource;
 
+    @Inject
+    VotingMetrics metrics;
+
+    @ConfigProperty(name = "voting.save.script.enabled", defaultValue = "true")
+    boolean scriptEnabled;
+
     private ValueCommands<String, String> valueCommands;
+    private volatile String saveVoteScriptSha;
 
     @jakarta.annotation.PostConstruct
     void init() {
@@ -35,40 +68,99 @@ public class RedisVotingRepository implements VotingRepository {
 
     @Override
     @CircuitBreaker(requestVolumeThreshold = 10, failureRatio = 0.5, delay = 10000, delayUnit = ChronoUnit.MILLIS)
+    @CircuitBreakerName(VotingMetrics.VOTE_SAVE_CIRCUIT_BREAKER)
     @Retry(maxRetries = 3, delay = 200, delayUnit = ChronoUnit.MILLIS)
     @Timeout(value = 3, unit = ChronoUnit.SECONDS)
     @Fallback(fallbackMethod = "saveFallback")
-    public void save(Vote vote) {
+    public boolean save(Vote vote) {
+        if (scriptEnabled) {
+            return saveWithScript(vote);
+        }
         try {
             // Save vote
             String voteKey = VOTE_KEY_PREFIX + vote.voterId() + ":" + vote.electionId();
-            valueCommands.set(voteKey, vote.candidateId());
+            metrics.timeRedis("set", () -> {
+                valueCommands.set(voteKey, vote.candidateId());
+                return null;
+            });
 
             // Increment candidate vote count
             String candidateKey = CANDIDATE_VOTES_PREFIX + vote.candidateId();
-            redisDataSource.value(Long.class).incr(candidateKey);
+            metrics.timeRedis("incr", () -> redisDataSource.value(Long.class).incr(candidateKey));
 
             // Increment election vote count
             String electionKey = ELECTION_VOTES_PREFIX + vote.electionId();
-            redisDataSource.value(Long.class).incr(electionKey);
+            metrics.timeRedis("incr", () -> redisDataSource.value(Long.class).incr(electionKey));
 
             LOG.debugf("Vote saved: voter=%s, candidate=%s, election=%s",
                     vote.voterId(), vote.candidateId(), vote.electionId());
+            return true;
         } catch (Exception e) {
             LOG.errorf(e, "Failed to save vote for voter %s", vote.voterId());
             throw new RuntimeException("Failed to save vote", e);
         }
     }
 
+    /**
+     * Save the vote through the atomic server-side script (single round trip)
+     * A retry after a lost reply finds the voter key already set to the same candidate and reports
+     * success without incrementing the counters again
+     */
+    private boolean saveWithScript(Vote vote) {
+        String[] keys = {
+                VOTE_KEY_PREFIX + vote.voterId() + ":" + vote.electionId(),
+                CANDIDATE_VOTES_PREFIX + vote.candidateId(),
+                ELECTION_VOTES_PREFIX + vote.electionId()
+        };
+        try {
+            long outcome = evalSaveVoteScript(keys, vote.candidateId()).toLong();
+            if (outcome == VOTE_CREATED) {
+                LOG.debugf("Vote saved: voter=%s, candidate=%s, election=%s",
+                        vote.voterId(), vote.candidateId(), vote.electionId());
+            } else if (outcome == VOTE_ALREADY_RECORDED) {
+                LOG.debugf("Vote already recorded: voter=%s, candidate=%s, election=%s",
+                        vote.voterId(), vote.candidateId(), vote.electionId());
+            } else {
+                LOG.debugf("Duplicate vote ignored: voter=%s, election=%s", vote.voterId(), vote.electionId());
+            }
+            return outcome != 0L;
+        } catch (Exception e) {
+            LOG.errorf(e, "Failed to save vote for voter %s", vote.voterId());
+            throw new RuntimeException("Failed to save vote", e);
+        }
+    }
+
+    /**
+     * Run the script by its SHA, loading it again if Redis lost it (restart, SCRIPT FLUSH)
+     */
+    private Response evalSaveVoteScript(String[] keys, String candidateId) {
+        String sha = saveVoteScriptSha != null ? saveVoteScriptSha : loadSaveVoteScript();
+        try {
+            return metrics.timeRedis("evalsha", () -> redisDataSource.execute(Command.EVALSHA, sha, "3", keys[0],
+                    keys[1], keys[2], candidateId));
+        } catch (Exception e) {
+            if (e.getMessage() == null || !e.getMessage().contains("NOSCRIPT")) {
+                throw e;
+            }
+            return redisDataSource.execute(Command.EVALSHA, loadSaveVoteScript(), "3", keys[0], keys[1], keys[2],
+                    candidateId);
+        }
+    }
+
+    private String loadSaveVoteScript() {
+        saveVoteScriptSha = redisDataSource.execute(Command.SCRIPT, "LOAD", SAVE_VOTE_SCRIPT).toString();
+        return saveVoteScriptSha;
+    }
+
     /**
      * Fallback method when Redis is unavailable
-     * Logs the failed vote for later processing (could queue to database)
+     * The vote was not stored, so the caller gets a failure rather than a vote reported as saved
      */
     @SuppressWarnings("unused")
-    private void saveFallback(Vote vote) {
+    private boolean saveFallback(Vote vote) {
         LOG.warnf("Using fallback for vote save - Redis unavailable. Vote: voter=%s, candidate=%s",
                 vote.voterId(), vote.candidateId());
-        // In production, this could queue the vote to a database or message queue
+        throw new IllegalStateException("Vote not saved, Redis is unavailable");
     }
 
     @Override
@@ -2,21 +2,31 @@ package infrastructure.resources;
 
 import api.ElectionApi;
 import api.dto.out.Election;
-import jakarta.transaction.Transactional;
+import api.dto.out.Standing;
+import infrastructure.metrics.VotingMetrics;
+import infrastructure.ratelimit.RateLimited;
+import infrastructure.ratelimit.RateLimited.RateLimitType;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import org.jboss.resteasy.reactive.ResponseStatus;
 import org.jboss.resteasy.reactive.RestResponse;
 
 import java.util.List;
+import java.util.NoSuchElementException;
 
 @Produces(MediaType.APPLICATION_JSON)
 @Path("api/voting")
 public class VotingResource {
+    static final int MAX_TOP = 100;
+
     private final ElectionApi api;
+    private final VotingMetrics metrics;
 
-    public VotingResource(ElectionApi api) {
+    public VotingResource(ElectionApi api, VotingMetrics metrics) {
         this.api = api;
+        this.metrics = metrics;
     }
 
     @GET
@@ -24,18 +34,71 @@ public class VotingResource {
         return api.findAll();
     }
 
+    /**
+     * Blocking vote, runs on a worker thread
+     * Every vote endpoint shares the voting limit of the client address, answered with 429 once spent
+     */
     @POST
     @Path("elections/{electionId}/candidates/{candidateId}")
     @ResponseStatus(RestResponse.StatusCode.ACCEPTED)
-    @Transactional
+    @RateLimited(RateLimitType.VOTING)
     public void vote(@PathParam("electionId") String electionId,
             @PathParam("candidateId") String candidateId) {
+        validate(electionId, candidateId);
+        metrics.timeVote(electionId, "blocking", () -> api.vote(electionId, candidateId));
+    }
+
+    /**
+     * Blocking vote, runs on a virtual thread
+     */
+    @POST
+    @Path("virtual/elections/{electionId}/candidates/{candidateId}")
+    @ResponseStatus(RestResponse.StatusCode.ACCEPTED)
+    @RateLimited(RateLimitType.VOTING)
+    @RunOnVirtualThread
+    public void voteOnVirtualThread(@PathParam("electionId") String electionId,
+            @PathParam("candidateId") String candidateId) {
+        validate(electionId, candidateId);
+        metrics.timeVote(electionId, "virtual", () -> api.vote(electionId, candidateId));
+    }
+
+    /**
+     * Non-blocking vote, runs on the event loop from the resource down to the Redis client
+     */
+    @POST
+    @Path("reactive/elections/{electionId}/candidates/{candidateId}")
+    @ResponseStatus(RestResponse.StatusCode.ACCEPTED)
+    @RateLimited(RateLimitType.VOTING)
+    public Uni<Void> voteReactive(@PathParam("electionId") String electionId,
+            @PathParam("candidateId") String candidateId) {
+        validate(electionId, candidateId);
+        return metrics.timeVote(electionId, "reactive", api.voteReactive(electionId, candidateId)).replaceWithVoid();
+    }
+
+    /**
+     * Leaderboard, runs on the event loop. Served from a short-lived cache shared by every caller,
+     * so refreshing clients cost Redis one ZREVRANGE per election and k each cache TTL. 404 for an unknown election
+     */
+    @GET
+    @Path("elections/{electionId}/top")
+    public Uni<List<Standing>> top(@PathParam("electionId") String electionId,
+            @QueryParam("k") @DefaultValue("10") int k) {
+        if (electionId == null || electionId.isBlank()) {
+            throw new BadRequestException("Election ID cannot be blank");
+        }
+        if (k < 1 || k > MAX_TOP) {
+            throw new BadRequestException("k must be between 1 and " + MAX_TOP);
+        }
+        return api.top(electionId, k)
+                .onFailure(NoSuchElementException.class).transform(e -> new NotFoundException(e.getMessage()));
+    }
+
+    private void validate(String electionId, String candidateId) {
         if (electionId == null || electionId.isBlank()) {
             throw new BadRequestException("Election ID cannot be blank");
         }
         if (candidateId == null || candidateId.isBlank()) {
             throw new BadRequestException("Candidate ID cannot be blank");
         }
-        api.vote(electionId, candidateId);
     }
 }
@@ -0,0 +1,55 @@
+package domain;
+
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ElectionServiceTest {
+
+    private final Candidate candidate = new Candidate("candidate");
+    private final Election election = new Election("election", List.of(candidate));
+    private final ElectionRepository repository = mock(ElectionRepository.class);
+    private final ElectionService service = new ElectionService(repository);
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findById(anyString())).thenAnswer(invocation -> new Election(invocation.getArgument(0), List.of()));
+        when(repository.findById(election.id())).thenReturn(election);
+        when(repository.findByIdReactive(anyString()))
+                .thenAnswer(invocation -> Uni.createFrom().item(repository.findById(invocation.getArgument(0))));
+        when(repository.voteReactive(anyString(), any())).thenReturn(Uni.createFrom().voidItem());
+    }
+
+    @Test
+    void vote_whenCandidateRuns_countsIt() {
+        assertTrue(service.vote("election", "candidate"));
+        verify(repository).vote(election.id(), candidate);
+    }
+
+    @Test
+    void vote_whenCandidateDoesNotRun_ignoresIt() {
+        assertFalse(service.vote("election", "unknown"));
+        assertFalse(service.vote("unknown", "candidate"));
+        verify(repository, never()).vote(anyString(), any());
+    }
+
+    @Test
+    void voteReactive_reportsWhetherTheVoteWasCounted() {
+        assertTrue(service.voteReactive("election", "candidate").await().indefinitely());
+        assertFalse(service.voteReactive("election", "unknown").await().indefinitely());
+        verify(repository, times(1)).voteReactive(election.id(), candidate);
+        verify(repository, times(1)).voteReactive(anyString(), any());
+    }
+}
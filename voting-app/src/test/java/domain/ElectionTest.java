@@ -0,0 +1,39 @@
+package domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ElectionTest {
+
+    @Test
+    void candidate_whenCandidateRuns_returnsIt() {
+        Candidate candidate = new Candidate("candidate-2");
+        Election election = new Election("election", List.of(new Candidate("candidate-1"), candidate));
+
+        assertSame(candidate, election.candidate("candidate-2"));
+    }
+
+    @Test
+    void candidate_whenCandidateDoesNotRun_returnsNull() {
+        Election election = new Election("election", List.of(new Candidate("candidate-1")));
+
+        assertNull(election.candidate("candidate-2"));
+    }
+
+    @Test
+    void candidate_whenListChangesAfterConstruction_staysConsistentWithCandidates() {
+        List<Candidate> candidates = new ArrayList<>(List.of(new Candidate("candidate-1")));
+        Election election = new Election("election", candidates);
+
+        candidates.add(new Candidate("candidate-2"));
+
+        assertEquals(List.of(new Candidate("candidate-1")), election.candidates());
+        assertNull(election.candidate("candidate-2"));
+    }
+}
@@ -0,0 +1,78 @@
+package domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VotingServiceTest {
+
+    private final VotingService service = new VotingService();
+    private final Map<String, String> recorded = new HashMap<>();
+    private boolean available = true;
+
+    @BeforeEach
+    void setUp() {
+        // Same contract as the save script: retries of a recorded vote succeed, other candidates are rejected
+        service.repository = new VotingRepository() {
+            @Override
+            public boolean save(Vote vote) {
+                if (!available) {
+                    throw new IllegalStateException("Vote not saved, Redis is unavailable");
+                }
+                String key = vote.voterId() + ":" + vote.electionId();
+                String candidate = recorded.putIfAbsent(key, vote.candidateId());
+                return candidate == null || candidate.equals(vote.candidateId());
+            }
+
+            @Override
+            public long countVotesByCandidate(String candidateId) {
+                return recorded.values().stream().filter(candidateId::equals).count();
+            }
+
+            @Override
+            public long countVotesByElection(String electionId) {
+                return recorded.size();
+            }
+        };
+    }
+
+    @Test
+    void processSequential_whenVoteIsRetried_reportsBothAttemptsAsSuccessful() {
+        Vote vote = Vote.create("election", "candidate", "voter");
+
+        BatchVoteResult result = service.processSequential(List.of(vote, vote));
+
+        assertEquals(2, result.successCount());
+        assertEquals(1, service.repository.countVotesByCandidate("candidate"));
+    }
+
+    @Test
+    void processSequential_whenVoterVotesForAnotherCandidate_reportsFailure() {
+        List<Vote> votes = List.of(Vote.create("election", "candidate-1", "voter"),
+                Vote.create("election", "candidate-2", "voter"));
+
+        BatchVoteResult result = service.processSequential(votes);
+
+        assertEquals(1, result.successCount());
+        assertEquals(1, result.failureCount());
+        assertFalse(result.results().get(1).success());
+        assertTrue(result.results().get(1).errorMessage().contains("already voted"));
+    }
+
+    @Test
+    void processSequential_whenVoteIsNotStored_reportsFailure() {
+        available = false;
+
+        BatchVoteResult result = service.processSequential(List.of(Vote.create("election", "candidate", "voter")));
+
+        assertEquals(0, result.successCount());
+        assertEquals(1, result.failureCount());
+    }
+}
@@ -0,0 +1,54 @@
+package infrastructure.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.faulttolerance.api.CircuitBreakerMaintenance;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VotingMetricsTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final VotingMetrics metrics = new VotingMetrics(registry, circuitBreakers(), 1);
+
+    @Test
+    void timeVote_whenVoteIsIgnored_countsItAsIgnoredWithoutClaimingATag() {
+        metrics.timeVote("junk", "blocking", () -> false);
+        metrics.timeVote("election", "blocking", () -> true);
+
+        assertEquals(1, registry.get("votes.ignored").counter().count());
+        assertEquals(1, registry.get("votes.success").counter().count());
+        assertEquals(1, registry.get("vote.processing.time").tag("election", "election").timer().count());
+        assertEquals(1, registry.get("vote.processing.time").tag("election", VotingMetrics.OTHER_ELECTION).timer().count());
+    }
+
+    @Test
+    void timeVote_whenVoteFails_countsItAsFailedWithoutClaimingATag() {
+        assertThrows(IllegalStateException.class, () -> metrics.timeVote("junk", "blocking", () -> {
+            throw new IllegalStateException("Redis unavailable");
+        }));
+        metrics.timeVote("election", "blocking", () -> true);
+
+        assertEquals(1, registry.get("votes.failed").counter().count());
+        assertEquals(1, registry.get("vote.processing.time").tag("election", "election").timer().count());
+    }
+
+    @Test
+    void timeVote_whenReactiveVoteIsIgnored_countsItAsIgnored() {
+        metrics.timeVote("junk", "reactive", Uni.createFrom().item(false)).await().indefinitely();
+
+        assertEquals(1, registry.get("votes.ignored").counter().count());
+        assertEquals(0, registry.get("votes.success").counter().count());
+        assertEquals(VotingMetrics.OTHER_ELECTION, metrics.electionTag("junk", false));
+    }
+
+    private static CircuitBreakerMaintenance circuitBreakers() {
+        return (CircuitBreakerMaintenance) Proxy.newProxyInstance(CircuitBreakerMaintenance.class.getClassLoader(),
+                new Class<?>[]{CircuitBreakerMaintenance.class}, (proxy, method, args) -> null);
+    }
+}
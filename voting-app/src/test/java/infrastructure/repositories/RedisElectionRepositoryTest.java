@@ -0,0 +1,130 @@
+package infrastructure.repositories;
+
+import domain.Candidate;
+import domain.Election;
+import domain.ElectionRepository;
+import domain.Standing;
+import infrastructure.metrics.VotingMetrics;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.cache.CaffeineCache;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@QuarkusTest
+class RedisElectionRepositoryTest {
+
+    @Inject
+    RedisDataSource redis;
+
+    @Inject
+    @CacheName("memoization")
+    Cache memoization;
+
+    @Inject
+    @CacheName("leaderboard")
+    Cache leaderboard;
+
+    // The application bean, with its cache interceptors
+    @Inject
+    ElectionRepository elections;
+
+    @Inject
+    RedisVoteBatcher voteBatcher;
+
+    @Inject
+    RedisVoteTally voteTally;
+
+    @Inject
+    VotingMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        redis.flushall();
+        leaderboard.invalidateAll().await().indefinitely();
+        memoization.invalidateAll().await().indefinitely();
+    }
+
+    @Test
+    void findAll_whenRegistryMissesOlderElections_backfillsIt() {
+        redis.sortedSet(String.class).zadd(RedisElectionRepository.KEY + "old", Map.of("candidate-1", 0.0));
+        redis.sortedSet(String.class).zadd(RedisElectionRepository.KEY + "new", Map.of("candidate-2", 0.0));
+        redis.set(String.class).sadd("elections", "new");
+        // Shares the key prefix but is not an election
+        redis.value(Long.class).set("election:votes:old", 3L);
+
+        Set<String> ids = repository().findAll().stream().map(Election::id).collect(Collectors.toSet());
+
+        assertEquals(Set.of("old", "new"), ids);
+        assertEquals(Set.of("old", "new"), redis.set(String.class).smembers("elections"));
+    }
+
+    @Test
+    void findAll_whenRegistryIsComplete_returnsRegisteredElections() {
+        redis.sortedSet(String.class).zadd(RedisElectionRepository.KEY + "election", Map.of("candidate", 0.0));
+        redis.set(String.class).sadd("elections", "election");
+
+        RedisElectionRepository repository = repository();
+        repository.findAll();
+
+        assertEquals(Set.of("election"), repository.findAll().stream().map(Election::id).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void topReactive_returnsTheMostVotedCandidatesFirst() {
+        redis.sortedSet(String.class).zadd(RedisElectionRepository.KEY + "election",
+                Map.of("candidate-1", 1.0, "candidate-2", 5.0, "candidate-3", 3.0));
+
+        List<Standing> top = elections.topReactive("election", 2).await().indefinitely();
+
+        assertEquals(List.of("candidate-2", "candidate-3"), top.stream().map(standing -> standing.candidate().id()).toList());
+        assertEquals(List.of(5L, 3L), top.stream().map(Standing::votes).toList());
+    }
+
+    @Test
+    void topReactive_whenElectionDoesNotExist_failsWithoutCachingIt() {
+        assertThrows(NoSuchElementException.class, () -> elections.topReactive("missing", 10).await().indefinitely());
+
+        assertEquals(Set.of(), leaderboard.as(CaffeineCache.class).keySet());
+    }
+
+    @Test
+    void findById_whenTheElectionIsPublished_reloadsItsCandidates() throws InterruptedException {
+        redis.sortedSet(String.class).zadd(RedisElectionRepository.KEY + "election", Map.of("candidate-1", 0.0));
+        assertEquals(List.of("candidate-1"), candidateIds(elections.findById("election")));
+
+        redis.sortedSet(String.class).zadd(RedisElectionRepository.KEY + "election", Map.of("candidate-2", 0.0));
+        assertEquals(List.of("candidate-1"), candidateIds(elections.findById("election")));
+        redis.pubsub(String.class).publish("elections", "election");
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (candidateIds(elections.findById("election")).size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(Set.of("candidate-1", "candidate-2"), Set.copyOf(candidateIds(elections.findById("election"))));
+    }
+
+    private static List<String> candidateIds(Election election) {
+        return election.candidates().stream().map(Candidate::id).toList();
+    }
+
+    /**
+     * A new instance, so the registry backfill has not run yet whatever the application did at startup
+     */
+    private RedisElectionRepository repository() {
+        return new RedisElectionRepository(redis, memoization, voteBatcher, voteTally, metrics, true, false);
+    }
+}
@@ -0,0 +1,99 @@
+package infrastructure.repositories;
+
+import infrastructure.metrics.VotingMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.redis.datasource.ReactiveRedisDataSource;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.smallrye.faulttolerance.api.CircuitBreakerMaintenance;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.redis.client.Redis;
+import io.vertx.redis.client.Request;
+import io.vertx.redis.client.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RedisVoteBatcherTest {
+
+    private final List<List<Request>> batches = new CopyOnWriteArrayList<>();
+    private RedisVoteBatcher batcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        batcher.shutdown();
+    }
+
+    @Test
+    void submit_completesOnceTheBatchIsAcknowledged() throws Exception {
+        batcher = batcher(true, Duration.ofSeconds(5));
+
+        CompletableFuture<Void> first = batcher.submit(RedisElectionRepository.KEY + "election", "candidate");
+        CompletableFuture<Void> second = batcher.submit(RedisElectionRepository.KEY + "election", "candidate");
+
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(2, batches.stream().flatMap(List::stream)
+                .filter(request -> request.command().toString().equalsIgnoreCase("ZINCRBY"))
+                .mapToInt(request -> Integer.parseInt(request.toString().split("\r\n")[6]))
+                .sum());
+    }
+
+    @Test
+    void submit_whenRedisNeverAnswers_failsTheVotesOnceTheBatchTimesOut() {
+        batcher = batcher(false, Duration.ofMillis(50));
+
+        CompletableFuture<Void> vote = batcher.submit(RedisElectionRepository.KEY + "election", "candidate");
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> vote.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, failure.getCause());
+    }
+
+    private RedisVoteBatcher batcher(boolean answers, Duration ackTimeout) {
+        Redis[] redis = new Redis[1];
+        redis[0] = proxy(Redis.class, (method, args) -> {
+            if (!method.equals("batch")) {
+                throw new UnsupportedOperationException(method);
+            }
+            @SuppressWarnings("unchecked")
+            List<Request> requests = (List<Request>) args[0];
+            batches.add(requests);
+            // Callback variant, used by the Mutiny wrapper
+            @SuppressWarnings("unchecked")
+            Handler<AsyncResult<List<Response>>> handler = (Handler<AsyncResult<List<Response>>>) args[1];
+            if (answers) {
+                handler.handle(Future.succeededFuture(List.of()));
+            }
+            return redis[0];
+        });
+        ReactiveRedisDataSource reactive = proxy(ReactiveRedisDataSource.class,
+                (method, args) -> new io.vertx.mutiny.redis.client.Redis(redis[0]));
+        RedisDataSource dataSource = proxy(RedisDataSource.class, (method, args) -> reactive);
+        CircuitBreakerMaintenance circuitBreakers = proxy(CircuitBreakerMaintenance.class, (method, args) -> null);
+
+        VotingMetrics metrics = new VotingMetrics(new SimpleMeterRegistry(), circuitBreakers, 20);
+        return new RedisVoteBatcher(dataSource, metrics, Duration.ofMillis(2), 512, ackTimeout);
+    }
+
+    private interface Invocation {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Invocation handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.invoke(method.getName(), args)));
+    }
+}
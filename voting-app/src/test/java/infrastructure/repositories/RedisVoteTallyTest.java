@@ -0,0 +1,189 @@
+package infrastructure.repositories;
+
+import infrastructure.metrics.VotingMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.redis.datasource.ReactiveRedisDataSource;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.smallrye.faulttolerance.api.CircuitBreakerMaintenance;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.redis.client.Redis;
+import io.vertx.redis.client.RedisConnection;
+import io.vertx.redis.client.Request;
+import io.vertx.redis.client.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisVoteTallyTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    // Failures of the next connect and batch calls, they succeed once the queue is empty
+    private final Deque<Throwable> connectFailures = new ArrayDeque<>();
+    private final Deque<Throwable> failures = new ArrayDeque<>();
+    private final List<List<Request>> batches = new ArrayList<>();
+    private RedisVoteTally tally;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        tally.shutdown();
+    }
+
+    @Test
+    void flush_whenRedisIsUnreachable_retainsVotesForTheNextFlush() {
+        tally = tally(100);
+        vote(3);
+        connectFailures.add(new ConnectException("Connection refused"));
+
+        tally.flush();
+
+        assertEquals(3, tally.pendingVotes());
+        tally.flush();
+        assertEquals(0, tally.pendingVotes());
+        assertEquals(1, batches.size());
+        assertTrue(batches.get(0).get(0).toString().contains("3"));
+    }
+
+    @Test
+    void flush_whenRedisStaysUnreachable_retainsAtMostTheCap() {
+        tally = tally(2);
+        vote(5);
+        connectFailures.add(new ConnectException("Connection refused"));
+
+        tally.flush();
+
+        assertEquals(2, tally.pendingVotes());
+        assertEquals(3, dropped("overflow"));
+    }
+
+    @Test
+    void flush_whenOutcomeIsUnknown_dropsVotesInsteadOfRetrying() {
+        tally = tally(100);
+        vote(4);
+        failures.add(new TimeoutException("No reply"));
+
+        tally.flush();
+
+        assertEquals(0, tally.pendingVotes());
+        assertEquals(4, dropped("unknown_outcome"));
+    }
+
+    @Test
+    void flush_whenNoConnectionIsAvailable_retainsVotesForTheNextFlush() {
+        tally = tally(100);
+        vote(2);
+        connectFailures.add(new IllegalStateException("Connection pool reached max wait queue size"));
+
+        tally.flush();
+
+        assertEquals(2, tally.pendingVotes());
+        assertEquals(0, batches.size());
+        assertEquals(0, dropped("unknown_outcome"));
+    }
+
+    @Test
+    void flush_removesElectionsWithoutVotesAfterOneMoreDrain() {
+        tally = tally(100);
+        vote(2);
+
+        tally.flush();
+        assertEquals(1, tally.trackedElections());
+        tally.flush();
+        assertEquals(1, tally.trackedElections());
+        tally.flush();
+
+        assertEquals(0, tally.trackedElections());
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    void flush_countsVotesOfARemovedElectionAgain() {
+        tally = tally(100);
+        vote(1);
+        tally.flush();
+        tally.flush();
+
+        vote(2);
+        tally.flush();
+
+        assertEquals(0, tally.pendingVotes());
+        assertEquals(2, batches.size());
+        assertEquals(1, tally.trackedElections());
+    }
+
+    private void vote(int votes) {
+        for (int i = 0; i < votes; i++) {
+            tally.increment(RedisElectionRepository.KEY + "election", "candidate");
+        }
+    }
+
+    private double dropped(String reason) {
+        return registry.get("votes.coalescing.dropped").tag("reason", reason).counter().count();
+    }
+
+    private RedisVoteTally tally(long maxRetainedVotes) {
+        RedisConnection connection = proxy(RedisConnection.class, (method, args) -> switch (method) {
+            case "batch" -> {
+                @SuppressWarnings("unchecked")
+                List<Request> requests = (List<Request>) args[0];
+                batches.add(requests);
+                yield reply(args, failures.isEmpty()
+                        ? Future.succeededFuture(List.<Response>of())
+                        : Future.failedFuture(failures.poll()));
+            }
+            case "close" -> reply(args, Future.succeededFuture());
+            default -> throw new UnsupportedOperationException(method);
+        });
+        Redis redis = proxy(Redis.class, (method, args) -> {
+            if (!method.equals("connect")) {
+                throw new UnsupportedOperationException(method);
+            }
+            return reply(args, connectFailures.isEmpty()
+                    ? Future.succeededFuture(connection)
+                    : Future.failedFuture(connectFailures.poll()));
+        });
+        ReactiveRedisDataSource reactive = proxy(ReactiveRedisDataSource.class,
+                (method, args) -> new io.vertx.mutiny.redis.client.Redis(redis));
+        RedisDataSource dataSource = proxy(RedisDataSource.class, (method, args) -> reactive);
+        CircuitBreakerMaintenance circuitBreakers = proxy(CircuitBreakerMaintenance.class, (method, args) -> null);
+
+        VotingMetrics metrics = new VotingMetrics(registry, circuitBreakers, 20);
+        // Flushes are driven by the tests, the background flusher never fires
+        return new RedisVoteTally(dataSource, registry, metrics, Duration.ofHours(1), maxRetainedVotes);
+    }
+
+    /**
+     * Answer either the Future variant of a call or its callback variant, used by the Mutiny wrapper
+     */
+    private static <T> Object reply(Object[] args, Future<T> result) {
+        if (args == null || !(args[args.length - 1] instanceof Handler<?>)) {
+            return result;
+        }
+        @SuppressWarnings("unchecked")
+        Handler<AsyncResult<T>> handler = (Handler<AsyncResult<T>>) args[args.length - 1];
+        handler.handle(result);
+        return null;
+    }
+
+    private interface Invocation {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Invocation handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.invoke(method.getName(), args)));
+    }
+}
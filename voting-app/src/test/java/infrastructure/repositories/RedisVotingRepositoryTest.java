@@ -0,0 +1,58 @@
+package infrastructure.repositories;
+
+import domain.Vote;
+import domain.VotingRepository;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class RedisVotingRepositoryTest {
+
+    @Inject
+    VotingRepository repository;
+
+    @Inject
+    RedisDataSource redis;
+
+    @BeforeEach
+    void setUp() {
+        redis.flushall();
+    }
+
+    @Test
+    void save_whenVoteIsNew_countsIt() {
+        assertTrue(repository.save(Vote.create("election", "candidate", "voter")));
+
+        assertEquals(1, repository.countVotesByCandidate("candidate"));
+        assertEquals(1, repository.countVotesByElection("election"));
+    }
+
+    @Test
+    void save_whenVoteIsRetried_reportsItRecordedAndCountsItOnce() {
+        Vote vote = Vote.create("election", "candidate", "voter");
+
+        assertTrue(repository.save(vote));
+        assertTrue(repository.save(vote));
+
+        assertEquals(1, repository.countVotesByCandidate("candidate"));
+        assertEquals(1, repository.countVotesByElection("election"));
+    }
+
+    @Test
+    void save_whenVoterVotedForAnotherCandidate_rejectsIt() {
+        assertTrue(repository.save(Vote.create("election", "candidate-1", "voter")));
+
+        assertFalse(repository.save(Vote.create("election", "candidate-2", "voter")));
+
+        assertEquals(1, repository.countVotesByCandidate("candidate-1"));
+        assertEquals(0, repository.countVotesByCandidate("candidate-2"));
+        assertEquals(1, repository.countVotesByElection("election"));
+    }
+}
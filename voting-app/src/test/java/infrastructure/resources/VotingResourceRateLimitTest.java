@@ -0,0 +1,35 @@
+package infrastructure.resources;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.notNullValue;
+
+@QuarkusTest
+@TestProfile(VotingResourceRateLimitTest.TwoVotesPerMinute.class)
+class VotingResourceRateLimitTest {
+
+    public static class TwoVotesPerMinute implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("ratelimit.voting.per-minute", "2");
+        }
+    }
+
+    @Test
+    void vote_onceTheVotingLimitIsSpent_returnsTooManyRequests() {
+        given().post("/api/voting/elections/election/candidates/candidate").then().statusCode(202);
+        given().post("/api/voting/virtual/elections/election/candidates/candidate").then().statusCode(202);
+
+        // The three vote endpoints share one limit per client address
+        given().post("/api/voting/reactive/elections/election/candidates/candidate")
+                .then()
+                .statusCode(429)
+                .header("Retry-After", notNullValue());
+    }
+}
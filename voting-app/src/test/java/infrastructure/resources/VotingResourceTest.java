@@ -0,0 +1,58 @@
+package infrastructure.resources;
+
+import api.ElectionApi;
+import api.dto.out.Standing;
+import domain.Candidate;
+import domain.ElectionRepository;
+import domain.ElectionService;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.NotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VotingResourceTest {
+
+    private final ElectionRepository repository = mock(ElectionRepository.class);
+    // top records no metrics
+    private final VotingResource resource = new VotingResource(new ElectionApi(new ElectionService(repository)), null);
+
+    @BeforeEach
+    void setUp() {
+        when(repository.topReactive(anyString(), anyInt()))
+                .thenAnswer(invocation -> Uni.createFrom().failure(
+                        new NoSuchElementException("Election " + invocation.getArgument(0) + " not found")));
+        when(repository.topReactive(eq("election"), anyInt()))
+                .thenReturn(Uni.createFrom().item(List.of(new domain.Standing(new Candidate("candidate"), 3))));
+    }
+
+    @Test
+    void top_returnsTheStandings() {
+        List<Standing> top = resource.top("election", 10).await().indefinitely();
+
+        assertEquals(1, top.size());
+        assertEquals(3, top.get(0).votes());
+    }
+
+    @Test
+    void top_whenElectionDoesNotExist_returnsNotFound() {
+        assertThrows(NotFoundException.class, () -> resource.top("missing", 10).await().indefinitely());
+    }
+
+    @Test
+    void top_whenKIsOutOfRange_returnsBadRequest() {
+        assertThrows(BadRequestException.class, () -> resource.top("election", 0));
+        assertThrows(BadRequestException.class, () -> resource.top("election", VotingResource.MAX_TOP + 1));
+    }
+}